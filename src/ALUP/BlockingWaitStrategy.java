@@ -0,0 +1,42 @@
+package ALUP;
+
+
+/*
+Copyright 2020 Skyfighter64
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+/**
+ * wait strategy blocking inside the connection of the device until the
+ * operating system delivers data or the timeout expired
+ * <br/>
+ * This does not use any CPU time while waiting and is therefore the default
+ * strategy. The detection latency depends on how fast the operating system
+ * wakes up the blocked thread; see Device.readAvailableBytes()
+ */
+public class BlockingWaitStrategy implements WaitStrategy
+{
+    @Override
+    public void idle (int iteration, long remaining)
+    {
+        //never called as the device blocks instead of polling
+    }
+
+    @Override
+    public boolean isBlocking ( )
+    {
+        return true;
+    }
+}
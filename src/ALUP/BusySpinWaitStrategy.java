@@ -0,0 +1,36 @@
+package ALUP;
+
+
+/*
+Copyright 2020 Skyfighter64
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+/**
+ * wait strategy checking for data in a tight loop
+ * <br/>
+ * This detects responses with the lowest possible latency but keeps one CPU
+ * core fully busy for every waiting device. Only use it if a core can be
+ * dedicated to a single device.
+ */
+public class BusySpinWaitStrategy implements WaitStrategy
+{
+    @Override
+    public void idle (int iteration, long remaining)
+    {
+        //hint the processor that this is a spin loop
+        Thread.onSpinWait ();
+    }
+}
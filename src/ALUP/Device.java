@@ -1,11 +1,19 @@
 package ALUP;
 
-import org.apache.commons.lang3.ArrayUtils;
-
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 
 /**
@@ -28,15 +36,235 @@ public abstract class Device
     //the current frame to be sent next
     Frame frame;
 
-    //the timeout for receiving a value in ms
+    //the encoder holding the wire buffer for the frames of this device; null
+    // until a configuration was received
+    private FrameEncoder encoder;
+
+    //copy of the LED colors shown by the device; null until a configuration
+    // was received
+    private ShadowFramebuffer shadow;
+
+    //true, if only the changed LEDs should be sent; see setDeltaMode()
+    private boolean deltaMode;
+
+    //the model deciding how the changed LEDs are split into frames in delta mode
+    private final WireCostModel wireCostModel = new WireCostModel ( );
+
+    //the frame rate the changes of each frame are fitted to; 0 if every
+    // frame is sent completely; see setBandwidthBudget()
+    private int budgetFrameRate;
+
+    //the number of frames whose changes did not fit into the bandwidth
+    // budget since the connection was established
+    private long framesOverBudget;
+
+    //the maximum number of LEDs written per chunk of a frame; 0 if frames
+    // are written at once; see setChunkSize()
+    private int chunkSize;
+
+    //true, if the send settings are chosen by the capabilities of the
+    // device when connecting; see setAutoConfiguration()
+    private boolean autoConfiguration;
+
+    //the maximum number of frames sent per second; 0 if unlimited
+    private int maxFrameRate;
+
+    //the minimum time between two frames in nanoseconds; 0 if unlimited
+    private long minFrameInterval;
+
+    //true, if frames which do not change any LED should be skipped; see
+    // setDuplicateSuppression()
+    private boolean duplicateSuppression;
+
+    //the time in nanoseconds after which a skipped duplicate frame is sent
+    // anyway to keep the connection alive
+    private long keepAliveInterval = TimeUnit.MILLISECONDS.toNanos (1000);
+
+    //the time in nanoseconds at which data was last written by send()
+    private long lastTransmitTime;
+
+    //the number of duplicate frames skipped since the connection was established
+    private long framesSkipped;
+
+    //the number of frames dropped by sendBefore() because they missed their
+    // deadline since the connection was established
+    private long framesDroppedLate;
+
+    //true, if only synchronizing frames wait for their response; see
+    // setStreamingMode()
+    private boolean streamingMode;
+
+    //every syncInterval-th frame sent in streaming mode is a synchronizing frame
+    private int syncInterval = 30;
+
+    //the time in nanoseconds after which the next frame sent in streaming
+    // mode is a synchronizing frame; 0 if disabled
+    private long syncPeriod = TimeUnit.MILLISECONDS.toNanos (500);
+
+    //the number of frames sent in streaming mode since the last synchronizing frame
+    private int framesSinceSync;
+
+    //the time in nanoseconds at which the last synchronizing frame was sent
+    private long lastSyncTime;
+
+    //the number of frames sent in streaming mode whose response was not
+    // received yet; all of them were sent after the frames in flight
+    private long unacknowledgedFrames;
+
+    //the number of frame error bytes received for frames sent in streaming mode
+    private long discardedFrameErrors;
+
+    //the bytes the device answers a frame with
+    private static final byte[] FRAME_RESPONSE_BYTES = new byte[]{Constants.FRAME_ACKNOWLEDGEMENT_BYTE, Constants.FRAME_ERROR_BYTE};
+
+    //the default timeout for receiving a value in ms
     private static final int RECEIVER_TIMEOUT = 10000;
 
+    //the default factor applied to the 99th rtt percentile to get the frame timeout
+    private static final double DEFAULT_FRAME_TIMEOUT_FACTOR = 4;
+
+    //the default lower bound of the frame timeout in ms
+    private static final int DEFAULT_MIN_FRAME_TIMEOUT = 50;
+
+    //the number of rtt samples needed before the frame timeout adapts to them
+    private static final int MIN_RTT_SAMPLES = 16;
+
+    //the number of rtt samples after which the frame timeout is recalculated
+    private static final int FRAME_TIMEOUT_UPDATE_INTERVAL = 16;
+
+    //the time in ms the whole handshake, from opening the connection to the
+    // configuration acknowledgement, has to be finished in
+    private int handshakeTimeout = RECEIVER_TIMEOUT;
+
+    //the time in ms the configuration exchange may take at most; limited by
+    // the deadline of the whole handshake
+    private int configurationTimeout = RECEIVER_TIMEOUT;
+
+    //the bounds of the frame timeout in ms
+    private int minFrameTimeout = DEFAULT_MIN_FRAME_TIMEOUT;
+    private int maxFrameTimeout = RECEIVER_TIMEOUT;
+
+    //the factor applied to the 99th rtt percentile to get the frame timeout
+    private double frameTimeoutFactor = DEFAULT_FRAME_TIMEOUT_FACTOR;
+
+    //the current timeout for receiving a frame response in ms, without the
+    // time needed for transmitting the frame
+    private int frameTimeout = RECEIVER_TIMEOUT;
+
+    //the rtt samples of the acknowledged frames of the current connection
+    private final RttStatistics rttStatistics = new RttStatistics (256);
+
+    //the number of rtt samples added since the frame timeout was calculated
+    private int samplesSinceTimeoutUpdate;
+
+    //the number of bytes written by the last write of frames
+    private int lastWriteSize;
+
+    //the maximum number of frames which may be sent without waiting for
+    // their response; 1 means waiting for every frame (stop and wait)
+    private int pipelineDepth = 1;
+
+    //the frames which were sent but not yet answered by the device
+    private final InFlightWindow inFlightFrames = new InFlightWindow (1);
+
+    //the number of frames sent since the connection was established; used
+    // as sequence number for the next frame
+    private long framesSent;
+
+    //the size of the buffer used for receiving data in bytes
+    private static final int RECEIVE_BUFFER_SIZE = 256;
+
+    //the shortest and longest time in nanoseconds for which readAvailableBytes()
+    // parks the thread while polling
+    private static final long MIN_PARK_TIME = TimeUnit.MICROSECONDS.toNanos (10);
+    private static final long MAX_PARK_TIME = TimeUnit.MILLISECONDS.toNanos (1);
+
+    //the strategy used while waiting for incoming data
+    private WaitStrategy waitStrategy = new BlockingWaitStrategy ( );
+
+    //buffer holding received bytes which were not processed yet
+    private final byte[] receiveBuffer = new byte[RECEIVE_BUFFER_SIZE];
+
+    //the index of the next unprocessed byte inside the receive buffer
+    private int receivePosition;
+
+    //the number of valid bytes inside the receive buffer
+    private int receiveLimit;
+
+    //the time in ms after which an idle I/O thread ends; a new one is
+    // started by the next asynchronous call
+    private static final long IO_THREAD_KEEP_ALIVE = 1000;
+
+    //the thread executing the asynchronous functions of this device; null
+    // until the first asynchronous function is called
+    private ExecutorService ioExecutor;
+
+    //the policy used to reconnect after the connection was lost; null if
+    // the automatic reconnection is disabled
+    private volatile ReconnectPolicy reconnectPolicy;
+
+    //the listener notified about the automatic reconnection; null if there is none
+    private volatile ReconnectListener reconnectListener;
+
+    //lock guarding the reconnect thread and the frame kept while reconnecting
+    private final Object reconnectLock = new Object ( );
+
+    //the thread reconnecting or lazily connecting this device; null if the
+    // device is not connecting in the background
+    private Thread reconnectThread;
+
+    //a copy of the latest frame passed to send() while (re)connecting in the
+    // background; null if there is none
+    private Frame coalescedFrame;
+
+    //copies of the frames passed to send() while (re)connecting in the
+    // background which must not be coalesced, oldest first; guarded by the
+    // reconnect lock
+    private final ArrayDeque<Frame> keptFrames = new ArrayDeque<> ( );
+
+    //the sequence number of the next task submitted to the I/O thread
+    private final AtomicLong taskSequence = new AtomicLong ( );
+
+    //the number of times the connection was lost while the automatic
+    // reconnection was enabled
+    private volatile long outageCount;
+
+    //the number of reconnection attempts made
+    private volatile long reconnectAttempts;
+
+    //the duration of the last outage which ended with a reconnection in nanoseconds
+    private volatile long lastOutageDuration;
+
     /**
      * the current connection state of this device
      * Note: do not change this value when implementing the abstract
      * functions of this class; This is already taken care of
      */
-     CONNECTION_STATE connectionState;
+     volatile CONNECTION_STATE connectionState;
+
+
+    /**
+     * interface for blocking device operations executed by the I/O thread of
+     * this device
+     */
+    interface IOTask
+    {
+        void run() throws Exception;
+    }
+
+
+    /**
+     * enumeration object representing the priority lanes of the I/O thread;
+     * queued tasks of the CONTROL lane are executed before the ones of the
+     * PIXEL lane
+     */
+    enum LANE
+    {
+        //protocol commands and subcommands
+        CONTROL,
+        //LED data
+        PIXEL
+    }
 
 
     /**
@@ -45,7 +273,11 @@ public abstract class Device
     public enum CONNECTION_STATE
     {
         DISCONNECTED,
-        CONNECTED
+        CONNECTED,
+        //the connection was lost and is restored in the background; see setReconnectPolicy()
+        RECONNECTING,
+        //the connection is established in the background; see connectLazily()
+        CONNECTING
     }
 
     /**
@@ -65,6 +297,23 @@ public abstract class Device
      */
     protected abstract void writeBytes(byte[] buffer ) throws IOException;
 
+    /**
+     * function which should send the given part of the given buffer over the
+     * device connection
+     * <br/>
+     * Implementing classes should override this function to write the bytes
+     * without copying them; the default implementation copies the given
+     * range and passes it to writeBytes(byte[])
+     * @param buffer an array containing the data which should be sent
+     * @param offset the index of the first byte to send
+     * @param length the number of bytes to send
+     * @throws IOException an IO error occurred while sending the data
+     */
+    protected void writeBytes(byte[] buffer, int offset, int length) throws IOException
+    {
+        writeBytes (Arrays.copyOfRange (buffer, offset, offset + length));
+    }
+
     /**
      * function which should return the number of bytes which are currently
      * available to be read
@@ -72,6 +321,50 @@ public abstract class Device
      */
     protected abstract int bytesAvailable();
 
+    /**
+     * function reading at least one and up to buffer.length bytes into the
+     * given buffer, blocking until data arrives or the given timeout expired
+     * <br/>
+     * Implementing classes should override this function with a blocking
+     * read of the underlying connection so the caller is woken up as soon as
+     * data arrives. The default implementation waits for bytesAvailable() with
+     * a short parking backoff and reads the available bytes using readBytes().
+     * @param buffer the buffer to store the received data in, starting at index 0
+     * @param timeOut the maximum time to wait for data in milliseconds;
+     *                if <= 0, only already available bytes are read
+     * @return the number of bytes read; 0 if no data arrived within the timeout
+     * @throws IOException the bytes could not be read because an IO error
+     * occurred or the thread was interrupted while waiting
+     */
+    protected int readAvailableBytes(byte[] buffer, int timeOut) throws IOException
+    {
+        long deadline = System.nanoTime () + TimeUnit.MILLISECONDS.toNanos (timeOut);
+        long parkTime = MIN_PARK_TIME;
+
+        int available = bytesAvailable ();
+        while(available <= 0)
+        {
+            long remaining = deadline - System.nanoTime ();
+            if(remaining <= 0)
+            {
+                //no data arrived within the timeout
+                return 0;
+            }
+            if(Thread.currentThread ().isInterrupted ())
+            {
+                throw new InterruptedIOException ( "Interrupted while waiting for data");
+            }
+            //wait a little longer each time so an idle connection does not waste CPU time
+            LockSupport.parkNanos (Math.min (parkTime, remaining));
+            parkTime = Math.min (parkTime * 2, MAX_PARK_TIME);
+            available = bytesAvailable ();
+        }
+
+        int bytesToRead = Math.min (available, buffer.length);
+        readBytes (buffer, bytesToRead);
+        return bytesToRead;
+    }
+
     /**
      * function which should open the connection to the device
      * @throws IOException an exception thrown by the implementing class
@@ -112,21 +405,174 @@ public abstract class Device
      */
     public void connect() throws TimeoutException, IncompatibleVersionException, IllegalArgumentException, IOException
     {
+        //an explicit connection replaces the automatic reconnection
+        stopReconnecting ();
+
+        establishConnection ();
+
+        //set the connection State to connected
+        connectionState = CONNECTION_STATE.CONNECTED;
+    }
+
+
+    /**
+     * function opening the connection, performing the handshake and
+     * receiving the configuration without marking the device as connected
+     * @throws TimeoutException the device did not respond within the timeout
+     * @throws  IncompatibleVersionException the protocol version of the device
+     * is incompatible
+     * @throws IllegalArgumentException the received configuration was invalid
+     * @throws IOException the connection could not be opened or an IO error occurred
+     */
+    private void establishConnection() throws TimeoutException, IncompatibleVersionException, IllegalArgumentException, IOException
+    {
+        //the whole handshake has to be finished within the handshake timeout
+        long deadline = System.nanoTime () + TimeUnit.MILLISECONDS.toNanos (handshakeTimeout);
+
+        //discard bytes left over from a previous connection
+        receivePosition = 0;
+        receiveLimit = 0;
+
         //open the hardware connection to the device
         openConnection ();
 
-        if(!waitForConnectionRequest())
+        if(!waitForConnectionRequest (deadline))
         {
             //no connection request received (timed out);
-            throw  new TimeoutException ( "No Connection request received within " + RECEIVER_TIMEOUT + " ms");
+            throw  new TimeoutException ( "No Connection request received within " + handshakeTimeout + " ms");
         }
         sendConnectionAcknowledgement ();
-        receiveConfiguration();
+        receiveConfiguration (deadline);
+
+        //start counting the frames of this connection
+        inFlightFrames.clear ();
+        framesSent = 0;
+        framesSkipped = 0;
+        framesDroppedLate = 0;
+        framesOverBudget = 0;
+        unacknowledgedFrames = 0;
+        discardedFrameErrors = 0;
+        framesSinceSync = 0;
+        lastSyncTime = System.nanoTime ();
+        wireCostModel.reset ();
+        rttStatistics.clear ();
+        updateFrameTimeout ();
+
+        if(autoConfiguration)
+        {
+            applyCapabilities (configuration.getCapabilities ());
+        }
+    }
 
-        //set the connection State to connected
-        connectionState = CONNECTION_STATE.CONNECTED;
+
+    /**
+     * function choosing the fastest send settings which are safe for the
+     * given capabilities of the connected device
+     * <br/>
+     * The pipeline depth is limited by the number of full frames fitting
+     * into the receive buffer of the device, ack-less streaming is only used
+     * if the device supports it and the frame rate is limited to the maximum
+     * frame rate of the device. Without any capabilities, every frame waits
+     * for its response.
+     * @param capabilities the capabilities announced by the device
+     */
+    private void applyCapabilities(DeviceCapabilities capabilities)
+    {
+        //the number of full frames fitting into the receive buffer of the device
+        int frameSize = Header.SIZE + configuration.getNumOfLeds () * 3;
+        int bufferedFrames = Integer.MAX_VALUE;
+        if(capabilities.getReceiveBufferSize () > 0)
+        {
+            bufferedFrames = Math.max (1, capabilities.getReceiveBufferSize () / frameSize);
+        }
+
+        setPipelineDepth (Math.min (capabilities.getPipelineDepth (), bufferedFrames));
+        setStreamingMode (capabilities.isAckless ());
+        if(capabilities.isAckless () && bufferedFrames != Integer.MAX_VALUE)
+        {
+            //synchronize before the streamed frames could overflow the receive buffer
+            setSyncInterval (bufferedFrames);
+        }
+        setMaxFrameRate (capabilities.getMaxFrameRate ());
+    }
+
+    /**
+     * function starting to connect this device in the background, so the
+     * application does not have to wait for the handshake
+     * <br/>
+     * Frames sent before the device is connected are kept like during a
+     * reconnection: only the latest frame with LED data is kept, together
+     * with the control frames sent in between, and they are sent as soon as
+     * the configuration was received. If the connection can not be
+     * established, the kept frames are discarded and the device stays
+     * disconnected; following send() calls throw a ConnectionException.
+     * <br/>
+     * Note: the connection is made on a separate daemon thread, not on the
+     * I/O thread of this device. A running automatic reconnection is stopped.
+     * @return a future which completes when the device is connected and the
+     * kept frames were sent, or completes exceptionally with the exception
+     * thrown while connecting
+     */
+    public CompletableFuture<Void> connectLazily()
+    {
+        //a new connection replaces the automatic reconnection
+        stopReconnecting ();
+
+        CompletableFuture<Void> future = new CompletableFuture<> ( );
+        synchronized (reconnectLock)
+        {
+            connectionState = CONNECTION_STATE.CONNECTING;
+
+            //use a daemon thread so a device does not keep the application alive
+            reconnectThread = new Thread (( ) -> connectInBackground (future), "ALUP-Connect-" + getClass ().getSimpleName ());
+            reconnectThread.setDaemon (true);
+            reconnectThread.start ();
+        }
+        return future;
     }
 
+
+    /**
+     * function connecting the device for connectLazily() and sending the
+     * frames kept until then
+     * <br/>
+     * Note: this function is executed on the connect thread; other threads
+     * do not access the connection until the device is connected
+     * @param future the future to complete when the device is connected
+     */
+    private void connectInBackground(CompletableFuture<Void> future)
+    {
+        try
+        {
+            establishConnection ();
+
+            if(!sendKeptFrames ())
+            {
+                //the connection was stopped while connecting
+                invalidateConnection ();
+                future.completeExceptionally (new ConnectionException ( "The connection was stopped before it was established"));
+                return;
+            }
+            future.complete (null);
+        }
+        catch (Exception e)
+        {
+            invalidateConnection ();
+            synchronized (reconnectLock)
+            {
+                if(reconnectThread == Thread.currentThread ())
+                {
+                    reconnectThread = null;
+                    coalescedFrame = null;
+                    keptFrames.clear ();
+                    connectionState = CONNECTION_STATE.DISCONNECTED;
+                }
+            }
+            future.completeExceptionally (e);
+        }
+    }
+
+
     /**
      * function connecting this device so it can be used for led data
      * transmission according to the ALUP protocol v. 0.1
@@ -155,6 +601,9 @@ public abstract class Device
      */
     public void disconnect()
     {
+        //stop the automatic reconnection if it is running
+        stopReconnecting ();
+
         //check if the device is already disconnected
         if(connectionState == CONNECTION_STATE.DISCONNECTED)
         {
@@ -163,6 +612,23 @@ public abstract class Device
             return;
         }
 
+        //wait for all frames which are still in flight so their responses
+        // do not get lost
+        try
+        {
+            flush ();
+        }
+        catch (TimeoutException | FrameErrorException | IOException e)
+        {
+            //the responses could not be received; the disconnect frame is
+            // sent anyways if the connection is still valid
+        }
+        if(connectionState == CONNECTION_STATE.DISCONNECTED)
+        {
+            //the connection was already invalidated while waiting
+            return;
+        }
+
         //send a disconnect command to the slave device
         try
         {
@@ -178,153 +644,680 @@ public abstract class Device
 
 
     /**
-     * function invalidating the connection to the device when it times out
-     * Note: if you want to disconnect from the device, use Disconnect()
-     * instead as it also tells the device to disconnect
+     * function starting the automatic reconnection after the connection was
+     * lost, if a ReconnectPolicy is set
+     * <br/>
+     * The frame which could not be sent is kept like a frame passed to send()
+     * while reconnecting, so it is sent again after the connection was
+     * restored; see keepFrame()
+     * @param cause the exception caused by the lost connection
+     * @param failedFrame the frame which was sent when the connection was
+     *                    lost; has to be non-null
+     * @return true, if the device is reconnecting now, false if the automatic
+     * reconnection is disabled
      */
-    private void invalidateConnection()
+    private boolean startReconnecting(Exception cause, Frame failedFrame)
     {
-        //invalidate the configuration and the serial connection
-        closeConnection ();
-        configuration = null;
+        ReconnectPolicy policy = reconnectPolicy;
+        if(policy == null)
+        {
+            return false;
+        }
+        if(connectionState == CONNECTION_STATE.CONNECTED)
+        {
+            //the connection failed without being invalidated, for example
+            // because of an IO error while writing
+            invalidateConnection ();
+        }
 
-        //set the connection state to "DISCONNECTED"
-        connectionState = CONNECTION_STATE.DISCONNECTED;
+        long outageStart = System.nanoTime ();
+        synchronized (reconnectLock)
+        {
+            //show the frame which could not be sent after reconnecting
+            keepFrame (failedFrame);
+            connectionState = CONNECTION_STATE.RECONNECTING;
+            outageCount++;
+
+            //use a daemon thread so a device does not keep the application alive
+            reconnectThread = new Thread (( ) -> reconnect (policy, outageStart), "ALUP-Reconnect-" + getClass ().getSimpleName ());
+            reconnectThread.setDaemon (true);
+            reconnectThread.start ();
+        }
+
+        ReconnectListener listener = reconnectListener;
+        if(listener != null)
+        {
+            listener.onConnectionLost (this, cause);
+        }
+        return true;
     }
 
 
     /**
-     * function comparing the given protocolVersion to the one specified in
-     * Constants.VERSION
-     * @param protocolVersion the protocol version to compare
-     * @throws IncompatibleVersionException The given protocol Version
-     * and the version at Constants.VERSION do not match and are therefore
-     * incompatible
+     * function trying to reconnect the device according to the given policy
+     * <br/>
+     * Note: this function is executed on the reconnect thread; other threads
+     * do not access the connection until the device is connected again
+     * @param policy the policy to follow
+     * @param outageStart the time in nanoseconds at which the connection was lost
      */
-    private void checkProtocolVersion(String protocolVersion) throws IncompatibleVersionException
+    private void reconnect(ReconnectPolicy policy, long outageStart)
     {
-        if(!protocolVersion.equals (Constants.VERSION))
+        int attempt = 0;
+        while(policy.allowsAttempt (attempt))
         {
-            //tell the device that the configuration could not be applied and throw an error
+            attempt++;
             try
             {
-                sendConfigurationError ();
+                Thread.sleep (policy.getDelay (attempt));
             }
-            catch (IOException e)
+            catch (InterruptedException e)
             {
-                //the configuration error could not be sent; assume that the device disconnected itself
+                //the reconnection was stopped
+                return;
             }
-            throw new IncompatibleVersionException("The protocol version of the Device ('" + protocolVersion + "') does not match this version ('" + Constants.VERSION + "')");
-        }
-    }
 
+            long attemptStart = System.nanoTime ();
+            try
+            {
+                synchronized (reconnectLock)
+                {
+                    if(reconnectThread != Thread.currentThread ())
+                    {
+                        //the reconnection was stopped
+                        return;
+                    }
+                }
+                reconnectAttempts++;
+                establishConnection ();
 
-    //region LED clamping
-
-    /**
-     * function clamping the given LED array inside the range of the LED strip
-     * connected to the device returning it
-     * @param leds the LEDs to be trimmed and set
-     * @param offset the offset for which the LEDs should be trimmed
-     * @return the new offset for the trimmed LEDs
-     */
-    private LED[] clampLeds(LED[] leds, int offset)
-    {
-        //check if the given led array is null
-        if(leds == null)
-        {
-            //return an empty array
-            return new LED[0];
-        }
+                if(!restoreLeds ())
+                {
+                    //the reconnection was stopped while connecting
+                    invalidateConnection ();
+                    return;
+                }
+                lastOutageDuration = System.nanoTime () - outageStart;
 
-        //Trim the led array according to the offset
-        return trimEnd(trimStart(getLeds (), offset), offset);
-    }
+                ReconnectListener listener = reconnectListener;
+                if(listener != null)
+                {
+                    listener.onReconnected (this, attempt, lastOutageDuration);
+                }
+                return;
+            }
+            catch (Exception e)
+            {
+                //close the failed connection and try again
+                invalidateConnection ();
+                synchronized (reconnectLock)
+                {
+                    if(reconnectThread != Thread.currentThread ())
+                    {
+                        return;
+                    }
+                    connectionState = CONNECTION_STATE.RECONNECTING;
+                }
 
+                ReconnectListener listener = reconnectListener;
+                if(listener != null)
+                {
+                    listener.onReconnectFailed (this, attempt, System.nanoTime () - attemptStart, e);
+                }
+            }
+        }
 
-    /**
-     * function clamping the offset if it exceeds the maximum number of
-     * LEDs or is smaller than 0.
-     * @param offset the offset to be trimmed
-     * @param maxLeds the maximum number of LEDs
-     * @return the clamped offset
-     */
-    static int clampOffset(int offset, int maxLeds)
-    {
-        //clamp the given offset between 0 and the number of LEDs connected
-        // to the device
-        return Math.max (0, Math.min (maxLeds, offset));
+        //all attempts failed; give up
+        synchronized (reconnectLock)
+        {
+            if(reconnectThread != Thread.currentThread ())
+            {
+                return;
+            }
+            reconnectThread = null;
+            coalescedFrame = null;
+            keptFrames.clear ();
+            connectionState = CONNECTION_STATE.DISCONNECTED;
+        }
+        ReconnectListener listener = reconnectListener;
+        if(listener != null)
+        {
+            listener.onReconnectAbandoned (this, attempt, System.nanoTime () - outageStart);
+        }
     }
 
 
-
     /**
-     *  function trimming the start of given LED array for the given offset if
-     *  it exceeds the numOfLeds of this device
-     *  Note: when using this function, you need to trim the offset separately
-     *  using TrimOffset()
-     * @param leds the LED array which should be trimmed; has to be non-null
-     * @param offset the offset for which the LED array should be trimmed;
-     *               can be negative
-     * @return the trimmed LED array
+     * function restoring the LEDs of the device after reconnecting by sending
+     * the last LEDs confirmed before the connection was lost, followed by the
+     * control frames and the latest frame passed to send() while reconnecting,
+     * and marking the device as connected
+     * <br/>
+     * Note: if the LEDs are not tracked because a chunk size is set, only the
+     * frames passed to send() are sent
+     * @return true, if the device is connected now, false if the
+     * reconnection was stopped
+     * @throws TimeoutException no Frame Acknowledgement or frame error
+     * byte received within the timeOut
+     * @throws  FrameErrorException a Frame Error byte was received
+     * @throws IOException an IO error occurred while sending or receiving
      */
-    private LED[] trimStart(LED[] leds, int offset)
+    private boolean restoreLeds() throws TimeoutException, FrameErrorException, IOException
     {
-        //check if it needs trimming
-        if(offset >= 0)
+        synchronized (reconnectLock)
         {
-            //no trimming needed
-            return leds;
+            if(reconnectThread != Thread.currentThread ())
+            {
+                return false;
+            }
         }
 
-        //trim the start of the  LEDs
-
-        //create a new LED array with the trimmed size
-        int newLedSize = fitArrayLength(getConfiguration ().getNumOfLeds (), leds.length, offset);
-        LED[] newLEDs  = new LED[newLedSize];
-
-        //loop through the trimmed leds and set their values
-        for(int i = 0; i < newLEDs.length; i++)
+        if(shadow.isTracking ())
         {
-            newLEDs[i] = leds[i];
+            encoder.reset ();
+            shadow.renderDisplayed ();
+            shadow.commitAll ();
+            encoder.appendImage (shadow.getTarget (), 0, shadow.getNumOfLeds (), Constants.COMMAND_NONE);
+            transmit (1);
         }
-
-        return  newLEDs;
+        return sendKeptFrames ();
     }
 
 
     /**
-     *  function trimming the end of given LED array for the given offset if it
-     *  exceeds the numOfLeds of this device
-     *  <br/>
-     *  Note: when using this function, you need to trim the offset separately
-     *  using TrimOffset()
-     * @param leds the LED array which should be trimmed; has to be non-null
-     * @param offset the offset for which the LED array should be trimmed;
-     *              can be negative
-     * @return the trimmed LED array
-     */
-    private LED[] trimEnd(LED[] leds, int offset)
+     * function sending the control frames and the latest frame passed to
+     * send() while the device was connecting in the background, and marking
+     * the device as connected once all of them were acknowledged
+     * <br/>
+     * The frames are taken while holding the reconnect lock, but sent
+     * without it, so threads calling send() in the meantime keep handing
+     * over their frames instead of waiting for the device.
+     * @return true, if the device is connected now, false if the connection
+     * was stopped
+     * @throws TimeoutException no Frame Acknowledgement or frame error
+     * byte received within the timeOut
+     * @throws  FrameErrorException a Frame Error byte was received
+     * @throws IOException an IO error occurred while sending or receiving
+     */
+    private boolean sendKeptFrames() throws TimeoutException, FrameErrorException, IOException
+    {
+        while(true)
+        {
+            Frame next;
+            synchronized (reconnectLock)
+            {
+                if(reconnectThread != Thread.currentThread ())
+                {
+                    //the connection was stopped
+                    return false;
+                }
+
+                next = keptFrames.pollFirst ();
+                if(next == null)
+                {
+                    next = coalescedFrame;
+                    coalescedFrame = null;
+                }
+                if(next == null && inFlightFrames.isEmpty ())
+                {
+                    //all kept frames were applied; frames passed to send()
+                    // from now on are sent directly
+                    reconnectThread = null;
+                    connectionState = CONNECTION_STATE.CONNECTED;
+                    return true;
+                }
+            }
+
+            if(next != null)
+            {
+                transmit (encodeFrame (next));
+            }
+            else
+            {
+                //wait for all responses before the device is marked as connected
+                receiveFrameResponse ();
+            }
+        }
+    }
+
+
+    /**
+     * function keeping a copy of the given frame until the device is
+     * (re)connected
+     * <br/>
+     * Only the latest frame with LED data is kept, while control frames are
+     * kept in order together with the LED frame sent before them.
+     * <br/>
+     * Note: has to be called while holding the reconnect lock
+     * @param frame the frame to keep; has to be non-null
+     */
+    private void keepFrame(Frame frame)
+    {
+        if(isControlFrame (frame))
+        {
+            if(coalescedFrame != null)
+            {
+                //the control frame has to be applied after this frame
+                keptFrames.addLast (coalescedFrame);
+                coalescedFrame = null;
+            }
+            keptFrames.addLast (new Frame (frame));
+        }
+        else
+        {
+            coalescedFrame = new Frame (frame);
+        }
+    }
+
+
+    /**
+     * function stopping the automatic reconnection or the lazy connection,
+     * if it is running, and waiting for its thread to finish
+     */
+    private void stopReconnecting()
+    {
+        Thread thread;
+        synchronized (reconnectLock)
+        {
+            thread = reconnectThread;
+            if(thread == null)
+            {
+                return;
+            }
+            reconnectThread = null;
+            coalescedFrame = null;
+            keptFrames.clear ();
+            connectionState = CONNECTION_STATE.DISCONNECTED;
+        }
+
+        if(thread != Thread.currentThread ())
+        {
+            thread.interrupt ();
+            try
+            {
+                thread.join ();
+            }
+            catch (InterruptedException e)
+            {
+                //keep the interrupt; the thread stops on its own
+                Thread.currentThread ().interrupt ();
+            }
+        }
+    }
+
+
+    /**
+     * function invalidating the connection to the device when it times out
+     * Note: if you want to disconnect from the device, use Disconnect()
+     * instead as it also tells the device to disconnect
+     */
+    private void invalidateConnection()
+    {
+        //invalidate the configuration and the serial connection
+        closeConnection ();
+        configuration = null;
+
+        //responses of frames in flight will never arrive
+        inFlightFrames.clear ();
+        unacknowledgedFrames = 0;
+        if(shadow != null)
+        {
+            //the LEDs of the device are unknown until the next connection
+            shadow.invalidate ();
+        }
+        //discard all bytes left over from the old connection
+        receivePosition = 0;
+        receiveLimit = 0;
+
+        //set the connection state to "DISCONNECTED"
+        connectionState = CONNECTION_STATE.DISCONNECTED;
+    }
+
+
+    /**
+     * function comparing the given protocolVersion to the one specified in
+     * Constants.VERSION
+     * @param protocolVersion the protocol version to compare
+     * @throws IncompatibleVersionException The given protocol Version
+     * and the version at Constants.VERSION do not match and are therefore
+     * incompatible
+     */
+    private void checkProtocolVersion(String protocolVersion) throws IncompatibleVersionException
+    {
+        if(!protocolVersion.equals (Constants.VERSION))
+        {
+            //tell the device that the configuration could not be applied and throw an error
+            try
+            {
+                sendConfigurationError ();
+            }
+            catch (IOException e)
+            {
+                //the configuration error could not be sent; assume that the device disconnected itself
+            }
+            throw new IncompatibleVersionException("The protocol version of the Device ('" + protocolVersion + "') does not match this version ('" + Constants.VERSION + "')");
+        }
+    }
+
+
+    //region asynchronous functions
+
+    /**
+     * function connecting this device on its I/O thread; see connect()
+     * @return a future which completes when the connection was established,
+     * or completes exceptionally with the exception thrown by connect()
+     */
+    public CompletableFuture<Void> connectAsync()
+    {
+        return runAsync (this::connect);
+    }
+
+
+    /**
+     * function sending the currently saved frame on the I/O thread of this
+     * device; see send()
+     * @return a future which completes when the frame was sent and, depending
+     * on the pipeline depth, acknowledged, or completes exceptionally with
+     * the TimeoutException, FrameErrorException or IOException thrown by send()
+     */
+    public CompletableFuture<Void> sendAsync()
+    {
+        return runAsync (this::send);
+    }
+
+
+    /**
+     * function applying the given LED array to the current frame and sending
+     * it on the I/O thread of this device; see send(LED[])
+     * <br/>
+     * Note: the LED array is applied on the I/O thread, so it must not be
+     * modified until the returned future completed
+     * @param leds the led array to be sent; will be cut to the right size if it
+     *             does not fit onto the actual LED strip
+     * @return a future which completes when the frame was sent, or completes
+     * exceptionally with the exception thrown by send(LED[])
+     */
+    public CompletableFuture<Void> sendAsync(LED[] leds)
+    {
+        return runAsync (() -> send (leds));
+    }
+
+
+    /**
+     * function applying the given LED array and offset to the current frame
+     * and sending it on the I/O thread of this device; see send(LED[], int)
+     * <br/>
+     * Note: the LED array is applied on the I/O thread, so it must not be
+     * modified until the returned future completed
+     * @param leds the LED array to be sent; will be cut to the right size if it
+     *            does not fit onto the actual LED strip
+     * @param offset the offset for the given LED array when applying;
+     * @return a future which completes when the frame was sent, or completes
+     * exceptionally with the exception thrown by send(LED[], int)
+     */
+    public CompletableFuture<Void> sendAsync(LED[] leds, int offset)
+    {
+        return runAsync (() -> send (leds, offset));
+    }
+
+
+    /**
+     * function sending the most recently published buffer of the given frame
+     * buffer on the I/O thread of this device; see send(FrameBuffer)
+     * <br/>
+     * The buffer is taken when the task is executed, so frames published
+     * while earlier tasks were running are sent right away
+     * @param buffer the frame buffer to send; has to be non-null
+     * @return a future which completes when the frame was sent, or completes
+     * exceptionally with the exception thrown by send(FrameBuffer)
+     * @throws NullPointerException the given frame buffer is null
+     */
+    public CompletableFuture<Void> sendAsync(FrameBuffer buffer)
+    {
+        if(buffer == null)
+        {
+            throw new NullPointerException ("the given frame buffer is null");
+        }
+        return runAsync (() -> send (buffer));
+    }
+
+
+    /**
+     * function sending all published segments of the given frame segments on
+     * the I/O thread of this device; see send(FrameSegments)
+     * @param segments the frame segments to send; has to be non-null
+     * @return a future which completes when the segments were sent, or
+     * completes exceptionally with the exception thrown by send(FrameSegments)
+     * @throws NullPointerException the given frame segments are null
+     */
+    public CompletableFuture<Void> sendAsync(FrameSegments segments)
+    {
+        if(segments == null)
+        {
+            throw new NullPointerException ("the given frame segments are null");
+        }
+        return runAsync (() -> send (segments));
+    }
+
+
+    /**
+     * function applying the given LED array to the current frame and sending
+     * it on the I/O thread of this device unless it missed the given
+     * deadline; see sendBefore(LED[], long)
+     * <br/>
+     * The deadline is checked when the frame is taken from the queue of the
+     * I/O thread, so frames stuck behind earlier ones get dropped as well.
+     * <br/>
+     * Note: the LED array is applied on the I/O thread, so it must not be
+     * modified until the returned future completed
+     * @param leds the led array to be sent; will be cut to the right size if it
+     *             does not fit onto the actual LED strip
+     * @param deadline the latest time in System.nanoTime() at which the frame
+     *                 may be written to the device
+     * @return a future which completes with true when the frame was sent, with
+     * false when it was dropped because it was late, or completes
+     * exceptionally with the exception thrown by sendBefore(LED[], long)
+     */
+    public CompletableFuture<Boolean> sendBeforeAsync(LED[] leds, long deadline)
+    {
+        CompletableFuture<Boolean> result = new CompletableFuture<> ( );
+        runAsync (() -> result.complete (sendBefore (leds, deadline))).whenComplete ((ignored, error) ->
+        {
+            if(error != null)
+            {
+                result.completeExceptionally (error);
+            }
+        });
+        return result;
+    }
+
+
+    /**
+     * function setting all LEDs of the device to 0 on its I/O thread, ahead
+     * of all queued LED frames; see clear()
+     * @return a future which completes when the clear frame was sent, or
+     * completes exceptionally with the exception thrown by clear()
+     */
+    public CompletableFuture<Void> clearAsync()
+    {
+        return runAsync (LANE.CONTROL, this::clear);
+    }
+
+
+    /**
+     * function sending a frame with the given subcommand on the I/O thread of
+     * this device, ahead of all queued LED frames; see sendSubcommand(int)
+     * @param id the ID of the subprogram to execute; has to be within a range of 0-247
+     * @return a future which completes when the subcommand frame was sent, or
+     * completes exceptionally with the exception thrown by sendSubcommand(int)
+     * @throws IllegalArgumentException the given ID is not within a range of 0-247
+     */
+    public CompletableFuture<Void> sendSubcommandAsync(int id)
+    {
+        Frame subcommandFrame = new Frame (id);
+        return runAsync (LANE.CONTROL, () -> submitFrame (subcommandFrame, false, 0));
+    }
+
+
+    /**
+     * function disconnecting this device on its I/O thread, ahead of all
+     * queued LED frames; see disconnect()
+     * <br/>
+     * Note: the LED frames still queued afterwards fail with a ConnectionException
+     * @return a future which completes when the device was disconnected
+     */
+    public CompletableFuture<Void> disconnectAsync()
+    {
+        return runAsync (LANE.CONTROL, this::disconnect);
+    }
+
+
+    /**
+     * function creating a subscriber which sends every LED array published
+     * to it to this device
+     * <br/>
+     * The frames are sent on the I/O thread of this device; see FrameSubscriber
+     * @param policy the policy deciding what happens to frames which arrive
+     *               while the buffer is full
+     * @param bufferSize the maximum number of frames waiting to be sent; has
+     *                   to be > 0
+     * @return a new subscriber for this device
+     * @throws IllegalArgumentException the given buffer size is <= 0
+     */
+    public FrameSubscriber asSubscriber(FrameSubscriber.OVERFLOW_POLICY policy, int bufferSize)
+    {
+        return new FrameSubscriber (this, policy, bufferSize);
+    }
+
+
+    /**
+     * function executing the given task in the PIXEL lane of the I/O thread
+     * of this device; see runAsync(LANE, IOTask)
+     * @param task the blocking operation to execute
+     * @return a future completing with the result of the given task
+     */
+    CompletableFuture<Void> runAsync(IOTask task)
+    {
+        return runAsync (LANE.PIXEL, task);
+    }
+
+
+    /**
+     * function executing the given task on the I/O thread of this device
+     * <br/>
+     * All tasks are executed one after another, so asynchronous calls on one
+     * device never overlap. Queued tasks of the CONTROL lane are executed
+     * before the ones of the PIXEL lane; inside a lane, the tasks are executed
+     * in the order they were submitted.
+     * Note: while asynchronous calls are pending, the blocking functions of
+     * this device must not be used from other threads
+     * @param lane the lane to queue the task in
+     * @param task the blocking operation to execute
+     * @return a future completing with the result of the given task
+     */
+    CompletableFuture<Void> runAsync(LANE lane, IOTask task)
+    {
+        CompletableFuture<Void> future = new CompletableFuture<> ( );
+        getIOExecutor ().execute (new LaneTask (lane, taskSequence.getAndIncrement (), () ->
+        {
+            try
+            {
+                task.run ();
+                future.complete (null);
+            }
+            catch (Exception e)
+            {
+                //hand the exception over to the caller
+                future.completeExceptionally (e);
+            }
+        }));
+        return future;
+    }
+
+
+    /**
+     * function returning the single threaded executor used for the
+     * asynchronous functions of this device, creating it if needed
+     * <br/>
+     * The I/O thread ends after being idle for IO_THREAD_KEEP_ALIVE ms, so a
+     * device which is no longer used, for example after disconnectAsync(),
+     * does not keep a thread running
+     * @return the I/O executor of this device
+     */
+    private synchronized ExecutorService getIOExecutor()
+    {
+        if(ioExecutor == null)
+        {
+            //a single thread taking the queued tasks ordered by their lane
+            ThreadPoolExecutor executor = new ThreadPoolExecutor (1, 1, IO_THREAD_KEEP_ALIVE, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<> ( ), runnable ->
+            {
+                //use a daemon thread so a device does not keep the application alive
+                Thread thread = new Thread (runnable, "ALUP-IO-" + getClass ().getSimpleName ());
+                thread.setDaemon (true);
+                return thread;
+            });
+            executor.allowCoreThreadTimeOut (true);
+            ioExecutor = executor;
+        }
+        return ioExecutor;
+    }
+
+
+    /**
+     * class representing a task queued on the I/O thread, ordered by its
+     * lane and then by the order of submission
+     */
+    private static final class LaneTask implements Runnable, Comparable<LaneTask>
     {
-        //check if it needs trimming
-        if(offset + leds.length <= getConfiguration ().getNumOfLeds ())
+        private final LANE lane;
+        private final long sequence;
+        private final Runnable runnable;
+
+        LaneTask(LANE lane, long sequence, Runnable runnable)
+        {
+            this.lane = lane;
+            this.sequence = sequence;
+            this.runnable = runnable;
+        }
+
+        @Override
+        public void run ( )
         {
-            //no trimming needed
-            return  leds;
+            runnable.run ();
         }
 
-        //copy the valid elements into a new array
-        //create a new LED array with the trimmed size
-        int newLedSize = fitArrayLength(getConfiguration ().getNumOfLeds (), leds.length, offset);
-        LED[] newLEDs  = new LED[newLedSize];
+        @Override
+        public int compareTo (LaneTask other)
+        {
+            if(lane != other.lane)
+            {
+                return lane.compareTo (other.lane);
+            }
+            return Long.compare (sequence, other.sequence);
+        }
+    }
+
+    //endregion
+
 
-        //copy parts of the array into the new one
-        if (newLEDs.length >= 0) System.arraycopy (leds, 0, newLEDs, 0, newLEDs.length);
+    //region LED clamping
 
-        return  newLEDs;
+    /**
+     * function clamping the offset if it exceeds the maximum number of
+     * LEDs or is smaller than 0.
+     * @param offset the offset to be trimmed
+     * @param maxLeds the maximum number of LEDs
+     * @return the clamped offset
+     */
+    static int clampOffset(int offset, int maxLeds)
+    {
+        //clamp the given offset between 0 and the number of LEDs connected
+        // to the device
+        return Math.max (0, Math.min (maxLeds, offset));
     }
 
 
+
     /**
      * function fitting the given length combined with the given offset into
      * the range of 0 to maxLength
@@ -430,8 +1423,18 @@ public abstract class Device
      * of this Device and waiting for "Frame Acknowledgement" or a "Frame Error"
      * response
      * <br/>
+     * When a pipeline depth > 1 is set, this function only waits for
+     * responses if the maximum number of frames is already in flight. The
+     * responses are then matched to the frames in the order they were sent,
+     * so a FrameErrorException may belong to an earlier frame; see
+     * FrameErrorException.getFrameNumber()
+     * <br/>
      *When the Frame is null, sending will get skipped without an error message
      *  or warning
+     * <br/>
+     * If a ReconnectPolicy is set, a lost connection does not throw an
+     * exception but starts the automatic reconnection; until the device is
+     * reconnected, this function only keeps a copy of the latest frame.
      * @throws ConnectionException The device is not connected; Connect
      * first by establishing a serial connection and using Connect()
      * @throws TimeoutException no Frame Acknowledgement or frame
@@ -443,715 +1446,2237 @@ public abstract class Device
      */
     public void send() throws TimeoutException, FrameErrorException, IOException
     {
-
-        //check if the connection was established before
-        if(connectionState != CONNECTION_STATE.CONNECTED)
-        {
-            throw new ConnectionException ("The device is not connected; Please establish a connection before sending data");
-        }
-        //check if there is data to send
-        if(frame == null)
-        {
-            //there is no data to send
-            return;
-        }
-
-        //Clamp the LED array and the offset
-        /* this is done in order to make it possible to use negative offsets or
-        offset values which would otherwise be out of range */
-
-        //clamp the LED array so it always fits to the actual LED strip
-        setLeds (clampLeds (getLeds (), getOffset ()));
-
-        //clamp the offset value according to the amount of connected LEDs,
-        // so it is within the range of the connected LEDs
-        setOffset (clampOffset (getOffset(), getConfiguration ().getNumOfLeds ()));
-
-
-
-        //begin measuring rtt here
-        long startTime = System.nanoTime ();
-        //send the data to the device
-        sendFrame(frame);
-
-        //wait for a response from the device and react accordingly
-        switch(waitForOneOf(RECEIVER_TIMEOUT, Constants.FRAME_ACKNOWLEDGEMENT_BYTE, Constants.FRAME_ERROR_BYTE))
-        {
-            case -1:
-                //the connection timed out
-                //disconnect the device and throw an error
-                invalidateConnection ();
-                throw  new TimeoutException ( "No Frame Response received within " + RECEIVER_TIMEOUT + " ms: Device timed out");
-
-            case 0:
-                //FRAME_ACKNOWLEDGEMENT_BYTE received
-                //do noting and continue
-                break;
-
-            case 1:
-                //FRAME_ERROR_BYTE received
-                //throw an error notifying the caller of the problem
-                throw new FrameErrorException ("The frame could not be applied by the Slave device: Frame Error Byte received");
-        }
-
-        //calculate the rtt and set it to the local variable
-        rtt = System.nanoTime () - startTime;
+        submitFrame (frame, false, 0);
     }
 
 
-
     /**
      * function applying the given LED array to the current frame and sending
-     * the current frame over the Serial connection of this Device and waiting
-     * for "Frame Acknowledgement" or a "Frame Error" response, overloading
-     * the Send() function.
+     * it like send(LED[]), unless it can not be written to the device before
+     * the given presentation deadline
      * <br/>
-     *When the Frame is null, sending will get skipped without an error message or warning
+     * The deadline is checked right before the frame is encoded, after
+     * waiting for the responses of earlier frames which were in the way. A
+     * frame which missed its deadline is dropped without changing the state
+     * of the device, so the next frame replaces it; see getFramesDroppedLate().
+     * The deadlines passed to a FrameScheduler.RenderCallback can be used
+     * directly.
      * @param leds the led array to be sent; will be cut to the right size if it
      *             does not fit onto the actual LED strip
+     * @param deadline the latest time in System.nanoTime() at which the frame
+     *                 may be written to the device
+     * @return true, if the frame was sent, skipped as duplicate or kept for a
+     * reconnection; false, if it was dropped because it was late
      * @throws ConnectionException The device is not connected; Connect
      * first by establishing a serial connection and using Connect()
      * @throws TimeoutException no Frame Acknowledgement or frame error
      * byte received within the timeOut; the device may be disconnected
      * @throws  FrameErrorException a Frame Error byte was received,
-     * indicating that the previously sent frame could not be applied by the device
+     * indicating that a previously sent frame could not be applied by the device
      * @throws IOException the data could not be sent because an IO error
      * occurred
      */
-    public void send(LED[] leds) throws TimeoutException, FrameErrorException, IOException
+    public boolean sendBefore(LED[] leds, long deadline) throws TimeoutException, FrameErrorException, IOException
     {
         setLeds (leds);
-        send ();
+        return submitFrame (frame, true, deadline);
     }
 
 
-
     /**
-     * function applying the given LED array and offset to the current frame
-     * and sending the current frame over the Serial connection of this Device
-     * and waiting for "Frame Acknowledgement" or a "Frame Error" response,
-     * overloading the Send() function
+     * function sending a frame with the given subcommand to the device and
+     * waiting for its response like send()
      * <br/>
-     *When the Frame is null, sending will get skipped without an error message or warning
-     * @param leds the LED array to be sent; will be cut to the right size if it
-     *            does not fit onto the actual LED strip
-     * @param offset the offset for the given LED array when applying;
+     * The subcommand is sent inside its own frame, so the current frame is
+     * kept. In contrast to LED frames, it is never skipped, dropped or
+     * coalesced, and it is acknowledged by the device even in streaming mode.
+     * @param id the ID of the subprogram to execute; has to be within a range of 0-247
+     * @throws IllegalArgumentException the given ID is not within a range of 0-247
      * @throws ConnectionException The device is not connected; Connect
      * first by establishing a serial connection and using Connect()
      * @throws TimeoutException no Frame Acknowledgement or frame error
      * byte received within the timeOut; the device may be disconnected
      * @throws  FrameErrorException a Frame Error byte was received,
-     * indicating that the previously sent frame could not be applied by the device
-     * @throws OutOfRangeException the given offset value is invalid
-     * according to the ALUP v. 0.1
+     * indicating that a sent frame could not be applied by the device
      * @throws IOException the data could not be sent because an IO error
-     *  occurred
+     * occurred
      */
-    public void send(LED[] leds, int offset) throws TimeoutException, FrameErrorException, IOException
+    public void sendSubcommand(int id) throws TimeoutException, FrameErrorException, IOException
     {
-        setLeds (leds);
-        setOffset (offset);
-        send ();
+        submitFrame (new Frame (id), false, 0);
     }
 
 
     /**
-     * function serializing the given frame according to the ALUP v. 0.1 frame
-     * specifications and sending it over the serial connection
-     * <br/>
-     * Note: This function is for raw frame sending only. Please use Send()
-     * instead as it also checks for acknowledgements and is more save to use
-     * @param frame the frame to be sent; has to be non-null
-     * @throws IOException an IO error occurred while sending the data
+     * function sending the given frame to the device if it is connected,
+     * or keeping it for a running reconnection
+     * @param frame the frame to send; nothing is sent if it is null
+     * @param hasDeadline true, if the frame has to be dropped when it can not
+     *                    be written before the given deadline
+     * @param deadline the latest time in System.nanoTime() at which the frame
+     *                 may be written; ignored if hasDeadline is false
+     * @return false, if the frame was dropped because it was late, else true
+     * @throws TimeoutException see send()
+     * @throws FrameErrorException see send()
+     * @throws IOException see send()
      */
-    private void sendFrame(Frame frame) throws IOException
+    private boolean submitFrame(Frame frame, boolean hasDeadline, long deadline) throws TimeoutException, FrameErrorException, IOException
     {
-        //serialize the content of the header and frame body to unsigned byte values
-        //Note: an array type of short is needed because Java does not support
-        // unsigned values.
-        short[] header = frame.getHeader ().serialize ();
-        short[] body = LED.serializeArray (frame.getLeds ());
-
-      /*  //TODO: remove debug message
-        System.out.println ( "Sending frame: " + frame.toString ());
-        System.out.println ( "Serialized header: " + ArrayUtils.toString (header));
-        System.out.println ( "Serialized body: " + ArrayUtils.toString (body));
-        System.out.println ( "Body size: " + frame.getHeader ().getBodySize ());*/
-
+        //check if the connection was established before
+        if(connectionState != CONNECTION_STATE.CONNECTED)
+        {
+            synchronized (reconnectLock)
+            {
+                if(reconnectThread != null)
+                {
+                    //the device is (re)connecting; keep the frame so it is
+                    // applied after the connection was established
+                    if(frame != null)
+                    {
+                        keepFrame (frame);
+                    }
+                    return true;
+                }
+            }
+            if(connectionState != CONNECTION_STATE.CONNECTED)
+            {
+                throw new ConnectionException ("The device is not connected; Please establish a connection before sending data");
+            }
+        }
+        //check if there is data to send
+        if(frame == null)
+        {
+            //there is no data to send
+            return true;
+        }
 
-        //send the serialized bytes over the serial connection
-        sendUnsignedBytes ( header);
-        sendUnsignedBytes ( body);
+        try
+        {
+            return deliverFrame (frame, hasDeadline, deadline);
+        }
+        catch (TimeoutException | IOException e)
+        {
+            if(!startReconnecting (e, frame))
+            {
+                throw e;
+            }
+            return true;
+        }
     }
 
 
     /**
-     * function sending the first byte of the given short value over the serial
-     * connection of this device
-     * @param value a number ranging from 0-255
-     * @throws IOException an IO error occurred while sending the data
-     *              <br/>
-     *  Note: Only the first byte of the given short number will be sent over
-     *              the serial connection.
-     *              <br/>
-     *              This has to be done because Java has no support for unsigned
-     *              values.
-     *              <br/>
-     *              Therefore the actual value from 0-255 given to this function will be sent
+     * function sending the given frame to the connected device
+     * <br/>
+     * Control frames are never skipped or dropped and always wait for their
+     * response, even in streaming mode
+     * @param frame the frame to send; has to be non-null
+     * @param hasDeadline true, if the frame has to be dropped when it can not
+     *                    be written before the given deadline
+     * @param deadline the latest time in System.nanoTime() at which the frame
+     *                 may be written; ignored if hasDeadline is false
+     * @return false, if the frame was dropped because it was late, else true
+     * @throws TimeoutException no Frame Acknowledgement or frame
+     * error byte received within the timeOut; the device got disconnected
+     * @throws  FrameErrorException a Frame Error byte was received
+     * @throws IOException an IO error occurred while sending or receiving
      */
-    private void sendUnsignedByte(short value) throws IOException
+    private boolean deliverFrame(Frame frame, boolean hasDeadline, long deadline) throws TimeoutException, FrameErrorException, IOException
     {
-        //get the first byte of the short
-        byte lowByte = (byte) (value & 0xff);
+        boolean control = isControlFrame (frame);
+        if(!control && duplicateSuppression && isDuplicate (frame) && System.nanoTime () - lastTransmitTime < keepAliveInterval)
+        {
+            //the LEDs of the device already show this frame
+            framesSkipped++;
+            return true;
+        }
 
-        //send it over the device's serial connection
-        writeBytes (new byte[]{lowByte});
-    }
+        boolean sync = control || !streamingMode || isSyncDue ();
+        if(!control && minFrameInterval > 0 && framesSent > 0)
+        {
+            //do not send frames faster than the device can show them
+            FrameScheduler.sleepUntil (lastTransmitTime + minFrameInterval);
+        }
+        if(hasDeadline && !control)
+        {
+            if(sync && unacknowledgedFrames > 0)
+            {
+                //the streamed frames have to be acknowledged before this one
+                // can be written; wait for them before checking the deadline
+                flush ();
+            }
+            if(System.nanoTime () - deadline > 0)
+            {
+                //the frame would be shown too late; drop it before it
+                // changes the shadow framebuffer
+                framesDroppedLate++;
+                return false;
+            }
+        }
 
+        //encode the frame into the wire buffer
+        //Note: the LED array and the offset get clamped while encoding; this is
+        // done in order to make it possible to use negative offsets or offset
+        // values which would otherwise be out of range
+        int frameCount = encodeFrame (frame);
+
+        //send the data to the device
+        if(!sync)
+        {
+            stream (frameCount);
+        }
+        else
+        {
+            framesSinceSync = 0;
+            lastSyncTime = System.nanoTime ();
+            transmit (frameCount);
+        }
+        return true;
+    }
 
 
     /**
-     * function sending the first byte of the given short value over the serial
-     * connection of this device
-     * @param values an array of numbers ranging from 0-255
-     * @throws IOException an IO error occurred while sending the data
-     *               <br/>
-     *  Note: Only the first byte of each given short number will be sent over
-     *              the serial connection.
-     *               <br/>
-     *              This has to be done because Java has no support for unsigned
-     *               values.
-     *               <br/>
-     *              Therefore the actual usnigned byte value of each short from 0-255
-     *              given to this function will be sent
+     * function checking if the given frame is a control frame, carrying a
+     * protocol command or a subcommand instead of LED data
+     * <br/>
+     * Note: clear frames with LED data are LED frames
+     * @param frame the frame to check; has to be non-null
+     * @return true, if the frame is a control frame, else false
      */
-    private void sendUnsignedBytes(short[] values) throws IOException
+    static boolean isControlFrame(Frame frame)
     {
-        //convert the short values to unsigned bytes
-        byte[] lowBytes = new byte[values.length];
-        for(int i = 0; i < values.length; i++)
+        short command = frame.getHeader ().getCommandByte ();
+        if(command == Constants.COMMAND_CLEAR)
         {
-            //get the lower byte of each value
-            lowBytes[i] =  (byte) (values[i]& 0xff);
+            return frame.getLeds ().length == 0;
         }
-        //send all the low bytes over the serial connection of this device
-        writeBytes (lowBytes);
-
+        return command != Constants.COMMAND_NONE;
     }
 
 
     /**
-     * function sending a connection acknowledgement to the serial device
-     * @throws IOException an IO error occurred while sending the data
+     * function checking if the next frame sent in streaming mode has to be a
+     * synchronizing frame
+     * @return true, if the sync interval or the sync period passed, else false
      */
-    private void sendConnectionAcknowledgement ( ) throws IOException
+    private boolean isSyncDue()
     {
-        writeBytes (new byte[]{Constants.CONNECTION_ACKNOWLEDGEMENT_BYTE});
+        return framesSinceSync + 1 >= syncInterval || (syncPeriod > 0 && System.nanoTime () - lastSyncTime >= syncPeriod);
     }
 
+
     /**
-     * function sending a configuration acknowledgement to the serial device
-     * indicating that the configuration was received and applied correctly
-     * @throws IOException an IO error occurred while sending the data
+     * function writing all frames inside the wire buffer to the device
+     * without waiting for their responses
+     * <br/>
+     * Responses which already arrived are discarded if no frames are in
+     * flight; the remaining ones are discarded by the next synchronizing frame
+     * @param frameCount the number of frames inside the wire buffer; has to be > 0
+     * @throws IOException an IO error occurred while sending or receiving
      */
-    private void sendConfigurationAcknowledgement ( ) throws IOException
+    private void stream(int frameCount) throws IOException
     {
-        writeBytes (new byte[]{Constants.CONFIGURATION_ACKNOWLEDGEMENT_BYTE});
+        lastTransmitTime = System.nanoTime ();
+        lastWriteSize = writeWireBuffer ();
+        framesSent += frameCount;
+        unacknowledgedFrames += frameCount;
+        framesSinceSync++;
+
+        if(inFlightFrames.isEmpty ())
+        {
+            //the received responses belong to streamed frames only
+            pollStreamedResponses ();
+        }
     }
 
+
     /**
-     * function sending a connection abort signal to the serial device
-     * indicating that the configuration caused an error and the connection
-     * attempt will be stopped
-     * @throws IOException an IO error occurred while sending the data
+     * function discarding the responses of frames sent in streaming mode
+     * which were already received, without waiting for more data
+     * <br/>
+     * Note: must only be called while no frames are in flight, as their
+     * responses arrive before the ones of the streamed frames
+     * @throws IOException an IO error occurred while receiving the responses
      */
-    private void sendConfigurationError() throws IOException
+    private void pollStreamedResponses() throws IOException
     {
-        writeBytes (new byte[]{Constants.CONFIGURATION_ERROR_BYTE});
+        while(unacknowledgedFrames > 0)
+        {
+            int response = pollOneOf (FRAME_RESPONSE_BYTES);
+            if(response == -1)
+            {
+                //the remaining responses did not arrive yet
+                return;
+            }
+            discardStreamedResponse (response);
+        }
     }
 
 
     /**
-     * function sending a disconnect command inside an empty frame to the device
-     * @throws IOException an IO error occurred while sending the data
+     * function waiting for the responses of all frames sent in streaming mode
+     * and discarding them
+     * <br/>
+     * Note: must only be called while no frames are in flight, as their
+     * responses arrive before the ones of the streamed frames
+     * @throws TimeoutException a response was not received within the
+     * timeOut; the device gets disconnected
+     * @throws IOException an IO error occurred while receiving the responses
      */
-    private  void sendDisconnectFrame() throws IOException
+    private void awaitStreamedResponses() throws TimeoutException, IOException
     {
-        //make a new empty frame
-        frame = new Frame ();
-        //set the disconnect command to the frame
-        frame.setProtocolCommand (Constants.COMMAND_DISCONNECT);
-        //send the frame without waiting for a response from the device
-        sendFrame (frame);
+        while(unacknowledgedFrames > 0)
+        {
+            int timeOut = getFrameResponseTimeout ();
+            int response = waitForOneOf (timeOut, FRAME_RESPONSE_BYTES);
+            if(response == -1)
+            {
+                //the connection timed out
+                //disconnect the device and throw an error
+                invalidateConnection ();
+                throw  new TimeoutException ( "No Frame Response received within " + timeOut + " ms: Device timed out");
+            }
+            discardStreamedResponse (response);
+        }
     }
 
-    //endregion
 
-    //region receiver functions
+    /**
+     * function processing the response to the oldest frame sent in
+     * streaming mode
+     * @param response the index of the response inside FRAME_RESPONSE_BYTES
+     */
+    private void discardStreamedResponse(int response)
+    {
+        unacknowledgedFrames--;
+        if(response == 1)
+        {
+            //a streamed frame was not applied; it is not reported as the
+            // following frames replace it, but the LEDs are unknown
+            discardedFrameErrors++;
+            shadow.invalidate ();
+        }
+
+        if(unacknowledgedFrames == 0)
+        {
+            //the device applied all sent frames
+            shadow.acknowledge ();
+        }
+    }
 
 
     /**
-     * function receiving the configuration of the device over the serial
-     * connection and applying it to this device
+     * function encoding the given frame into the wire buffer and updating the
+     * shadow framebuffer accordingly
      * <br/>
-     * Note: This function blocks until the configuration was received successfully.
+     * In delta mode, only the LEDs which changed compared to the shadow
+     * framebuffer are encoded, using the body offset and no clear command.
+     * The changed LEDs may be split into multiple frames as planned by the
+     * WireCostModel of this device. If the state of the device is unknown,
+     * the whole LED strip is encoded.
      * <br/>
-     *  Retrieve it using getConfiguration()
-     *  @throws TimeoutException the configuration could not be received
-     *  because the serial device did not send a CONFIGURATION_START_BYTE
-     *  within 10 seconds
-     *  @throws IncompatibleVersionException The protocol Version of the
-     *  SerialDevice and the version at Constants.VERSION
-     *                      do not match and are therefore incompatible
-     * @throws IllegalArgumentException The configuration received from
-     * the device or parts of it were invalid. Therefore the
-     *                      connection attempt was stopped
-     * @throws IOException the configuration could not be received, because
-     * an IO error occurred
+     * With a bandwidth budget, only the most visible changes fitting into
+     * the budget are encoded; see setBandwidthBudget()
+     * <br/>
+     * If a chunk size is set, only the header of the frame is encoded and
+     * its body is encoded in chunks while writing it; see setChunkSize()
+     * @param frame the frame to encode; has to be non-null
+     * @return the number of frames inside the wire buffer
      */
-    private void receiveConfiguration ( ) throws IncompatibleVersionException, TimeoutException, IllegalArgumentException, IOException
+    private int encodeFrame(Frame frame)
     {
-        //Wait for the configuration start byte
-        if(!waitForByte(Constants.CONFIGURATION_START_BYTE, RECEIVER_TIMEOUT))
+        encoder.reset ();
+        if(encoder.getChunkLeds () > 0)
+        {
+            //the LEDs are not tracked; the body is encoded while writing it
+            encoder.beginChunks (frame);
+            return 1;
+        }
+        if((!deltaMode && budgetFrameRate == 0) || !isShadowed (frame))
         {
-            //no configuration start byte received within 10 seconds
-            throw  new TimeoutException ( "No configuration start byte received within " + RECEIVER_TIMEOUT + " ms");
+            appendFrame (frame);
+            return 1;
         }
 
-        //read the configuration values
-        String protocolVersion = receiveString();
-        //check if the protocol version is compatible with the one used here
-        checkProtocolVersion(protocolVersion);
+        shadow.render (frame);
+        if(!shadow.isValid ())
+        {
+            //the state of the device is unknown; send the whole LED strip
+            shadow.commitAll ();
+            encoder.appendImage (shadow.getTarget (), 0, shadow.getNumOfLeds (), Constants.COMMAND_NONE);
+            return 1;
+        }
 
-        String deviceName = receiveString();
-        int numOfLeds = receiveInt();
-        int dataPin = receiveInt();
-        int clockPin = receiveInt();
-        String extraValues = receiveString();
+        int regionCount = wireCostModel.plan (shadow);
+        if(regionCount == 0)
+        {
+            //nothing changed; send an empty frame
+            encoder.appendImage (shadow.getTarget (), 0, 0, Constants.COMMAND_NONE);
+            return 1;
+        }
 
-        try
+        long budget = budgetFrameRate == 0 ? Long.MAX_VALUE : wireCostModel.getFrameBudget (budgetFrameRate);
+        if(wireCostModel.getPlannedCost () > budget)
         {
-            //apply the values to the configuration
-            configuration = new DeviceConfiguration(protocolVersion, deviceName, numOfLeds, dataPin, clockPin, extraValues);
+            //not all changes can be sent in time; send the most visible ones
+            // and leave the others in the shadow for the following frames
+            regionCount = wireCostModel.fitToBudget (shadow, budget);
+            shadow.defer ();
+            framesOverBudget++;
         }
-        catch (IllegalArgumentException e)
+        else if(!shadow.isDeferring () && wireCostModel.getPlannedCost () >= wireCostModel.getCost (1, frameLength (frame)))
         {
-            //at least one of the given configuration values was illegal
-            sendConfigurationError ();
-            throw e;
+            //the frame itself is not more expensive than the changes, for
+            // example a small frame clearing all other LEDs; send it as it is
+            shadow.commitAll ();
+            encoder.append (frame);
+            return 1;
         }
 
-        //configuration received and applied successfully
-        //send a configuration acknowledgement
-        sendConfigurationAcknowledgement();
-
-        //wait for a configuration acknowledgement from the slave device to
-        // finish the configuration process
-        if(!waitForByte (Constants.CONFIGURATION_ACKNOWLEDGEMENT_BYTE, RECEIVER_TIMEOUT))
+        //only send the changed regions, keeping all other LEDs as they are
+        for(int i = 0; i < regionCount; i++)
         {
-            //no configuration Acknowledgement received within the timeOut
-            //something probably went wrong on the device
-            invalidateConnection ();
-            throw new TimeoutException ( "No Configuration Acknowledgement received: Device not responding");
+            int start = wireCostModel.getRegionStart (i);
+            int end = wireCostModel.getRegionEnd (i);
+            shadow.commit (start, end);
+            encoder.appendImage (shadow.getTarget (), start, end - start, Constants.COMMAND_NONE);
         }
+        return regionCount;
     }
 
 
     /**
-     * receive a String over the serial connection until a null terminator ('\0')
-     * is received
+     * function checking if sending the given frame would not change any LED
+     * of the device
      * <br/>
-     * Note: This function blocks until a null byte is received and a string is
-     * returned
-     * @return the string which was read from the serial Connection
-     * @throws IOException the string could not be received because an
-     * IO error occurred
+     * Note: the frame is compared to the LEDs shown by the device after all
+     * frames in flight were applied; frames with subcommands are never
+     * considered duplicates
+     * @param frame the frame to check; has to be non-null
+     * @return true, if the frame does not change the LEDs of the device,
+     * else false
      */
-    private String receiveString ( ) throws IOException
+    private boolean isDuplicate(Frame frame)
     {
+        if(!isShadowed (frame) || !shadow.isValid ())
+        {
+            //the effect of the frame or the state of the device is unknown
+            return false;
+        }
+        shadow.render (frame);
+        return !shadow.findChanges ();
+    }
 
-        ArrayList<Byte> byteBuffer = new ArrayList<> ( );
-        while(true)
+
+    /**
+     * function writing the frames inside the wire buffer to the device
+     * <br/>
+     * A chunked frame is written chunk by chunk, so its first bytes are
+     * written before the rest of its body is encoded
+     * @return the number of written bytes
+     * @throws IOException an IO error occurred while sending the data
+     */
+    private int writeWireBuffer() throws IOException
+    {
+        if(!encoder.isChunked ())
         {
-            int availableBytes = bytesAvailable ();
-            if(availableBytes > 0)
-            {
-                byte[] rxByte = new byte[1];
-                readBytes (rxByte, 1);
+            writeBytes (encoder.getBuffer (), 0, encoder.size ());
+            return encoder.size ();
+        }
 
+        int writtenBytes = 0;
+        do
+        {
+            encoder.encodeChunk ();
+            writeBytes (encoder.getBuffer (), 0, encoder.size ());
+            writtenBytes += encoder.size ();
+        }
+        while(encoder.hasRemainingChunks ());
+        return writtenBytes;
+    }
 
-                //check if this byte is a null byte and therefore marks the end of the String
-                if(rxByte[0] == 0x00)
-                {
-                    //end of the string reached
-                    break;
-                }
 
-                //add the byte to the buffer
-                byteBuffer.add (rxByte[0]);
+    /**
+     * function writing all frames inside the wire buffer to the device at
+     * once and waiting for responses until there is room for the next frame
+     * <br/>
+     * If a response is an error, the frames after it stay in flight, so
+     * their responses are still matched to them
+     * @param frameCount the number of frames inside the wire buffer; has to be > 0
+     * @throws TimeoutException no Frame Acknowledgement or frame error
+     * byte received within the timeOut; the device may be disconnected
+     * @throws  FrameErrorException a Frame Error byte was received for one of
+     * the frames in flight
+     * @throws IOException an IO error occurred while sending or receiving
+     */
+    private void transmit(int frameCount) throws TimeoutException, FrameErrorException, IOException
+    {
+        if(unacknowledgedFrames > 0)
+        {
+            //receive the responses of all streamed frames first so the
+            // response of these frames is not confused with them
+            flush ();
+        }
+
+        //make room for all frames before writing them; once written, every
+        // frame has to be in flight so its response is matched to it, even
+        // if the response of another frame is an error
+        inFlightFrames.ensureCapacity (frameCount);
+        while(inFlightFrames.size () + frameCount > inFlightFrames.capacity ())
+        {
+            receiveFrameResponse ();
+        }
+
+        //begin measuring rtt here
+        long startTime = System.nanoTime ();
+        lastWriteSize = writeWireBuffer ();
+        lastTransmitTime = startTime;
+
+        //remember the frames until their responses arrive
+        for(int i = 0; i < frameCount; i++)
+        {
+            inFlightFrames.add (framesSent, startTime);
+            framesSent++;
+        }
+
+        //wait for responses until there is room for the next frame
+        //Note: with a pipeline depth of 1, this waits for the responses of
+        // the frames which were just sent
+        while(inFlightFrames.size () >= pipelineDepth)
+        {
+            receiveFrameResponse ();
+        }
+
+        if(inFlightFrames.isEmpty ())
+        {
+            //no other frames were in flight, so the rtt shows the cost of
+            // these frames only
+            wireCostModel.update (rtt, lastWriteSize, frameCount);
+        }
+    }
+
+
+    /**
+     * function encoding the given frame behind the frames already inside the
+     * wire buffer and updating the shadow framebuffer accordingly
+     * @param frame the frame to encode; has to be non-null
+     * @return the number of encoded bytes inside the wire buffer
+     */
+    private int appendFrame(Frame frame)
+    {
+        if(isShadowed (frame))
+        {
+            //keep track of the LEDs shown by the device
+            shadow.render (frame);
+            shadow.commitAll ();
+        }
+        else
+        {
+            //the frame changes the LEDs in an unknown way
+            shadow.invalidate ();
+        }
+        return encoder.append (frame);
+    }
+
+
+    /**
+     * function returning the number of LEDs the given frame covers on the
+     * LED strip after clamping it
+     * @param frame the frame to check; has to be non-null
+     * @return the number of LEDs inside the body of the encoded frame
+     */
+    private int frameLength(Frame frame)
+    {
+        int numOfLeds = configuration.getNumOfLeds ();
+        int ledCount = frame.getLeds ().length == 0 ? numOfLeds : frame.getLeds ().length;
+        return FrameEncoder.visibleLength (frame.getHeader ().getOffset (), ledCount, numOfLeds);
+    }
+
+
+    /**
+     * function checking if the effect of the given frame on the LEDs of the
+     * device is known, so it can be tracked by the shadow framebuffer
+     * @param frame the frame to check; has to be non-null
+     * @return true, if the frame only contains LED data and optionally the
+     * clear command, false if it contains a subcommand or other command
+     */
+    private static boolean isShadowed(Frame frame)
+    {
+        short command = frame.getHeader ().getCommandByte ();
+        return command == Constants.COMMAND_NONE || command == Constants.COMMAND_CLEAR;
+    }
+
+
+    /**
+     * function waiting until the responses for all frames which are still in
+     * flight were received, including the frames sent in streaming mode
+     * <br/>
+     * Note: When using a pipeline depth of 1 and no streaming mode, there are
+     * never any frames in flight after send() returned, so this function
+     * returns immediately
+     * @throws TimeoutException no Frame Acknowledgement or frame error
+     * byte received within the timeOut; the device may be disconnected
+     * @throws  FrameErrorException a Frame Error byte was received for one of
+     * the frames in flight; the remaining frames are still in flight
+     * @throws IOException an IO error occurred while waiting for a response
+     */
+    public void flush() throws TimeoutException, FrameErrorException, IOException
+    {
+        if(connectionState != CONNECTION_STATE.CONNECTED)
+        {
+            //no frames are in flight without a connection; while
+            // reconnecting, the connection belongs to the reconnect thread
+            return;
+        }
+        while(!inFlightFrames.isEmpty ())
+        {
+            receiveFrameResponse ();
+        }
+        awaitStreamedResponses ();
+    }
+
+
+    /**
+     * function waiting for the response to the oldest frame in flight,
+     * removing it from the in-flight frames and measuring its rtt
+     * @throws TimeoutException no Frame Acknowledgement or frame error
+     * byte received within the timeOut; the device gets disconnected
+     * @throws  FrameErrorException a Frame Error byte was received for the
+     * oldest frame in flight
+     * @throws IOException an IO error occurred while waiting for a response
+     */
+    private void receiveFrameResponse() throws TimeoutException, FrameErrorException, IOException
+    {
+        //wait for a response from the device and react accordingly
+        int timeOut = getFrameResponseTimeout ();
+        int response = waitForOneOf(timeOut, FRAME_RESPONSE_BYTES);
+
+        if(response == -1)
+        {
+            //the connection timed out
+            //disconnect the device and throw an error
+            invalidateConnection ();
+            throw  new TimeoutException ( "No Frame Response received within " + timeOut + " ms: Device timed out");
+        }
+
+        //the response belongs to the oldest frame in flight as the device
+        // answers the frames in order
+        long frameNumber = inFlightFrames.getOldestSequenceNumber ();
+        long startTime = inFlightFrames.getOldestStartTime ();
+        inFlightFrames.removeOldest ();
+
+        if(response == 1)
+        {
+            //FRAME_ERROR_BYTE received
+            //the frame was not applied, so the LEDs of the device are unknown
+            shadow.invalidate ();
+            //throw an error notifying the caller of the problem
+            throw new FrameErrorException ("Frame " + frameNumber + " could not be applied by the Slave device: Frame Error Byte received", frameNumber);
+        }
+
+        //FRAME_ACKNOWLEDGEMENT_BYTE received
+        //calculate the rtt and set it to the local variable
+        rtt = System.nanoTime () - startTime;
+
+        //adapt the frame timeout to the measured rtt
+        rttStatistics.add (rtt);
+        if(++samplesSinceTimeoutUpdate >= FRAME_TIMEOUT_UPDATE_INTERVAL)
+        {
+            updateFrameTimeout ();
+        }
+
+        if(inFlightFrames.isEmpty () && unacknowledgedFrames == 0)
+        {
+            //the device applied all sent frames
+            shadow.acknowledge ();
+        }
+    }
+
+
+    /**
+     * function calculating the frame timeout from the 99th percentile of the
+     * measured rtt samples, limited by the frame timeout bounds
+     * <br/>
+     * Note: until enough samples were measured, the upper bound is used
+     */
+    private void updateFrameTimeout()
+    {
+        samplesSinceTimeoutUpdate = 0;
+        if(rttStatistics.size () < MIN_RTT_SAMPLES)
+        {
+            frameTimeout = maxFrameTimeout;
+            return;
+        }
+
+        double timeOut = Math.ceil (rttStatistics.percentile (0.99) * frameTimeoutFactor / 1000000);
+        frameTimeout = (int) Math.max (minFrameTimeout, Math.min (maxFrameTimeout, timeOut));
+    }
+
+
+    /**
+     * function returning the time to wait for the next frame response
+     * <br/>
+     * The time needed for transmitting the last written frames at the
+     * bandwidth of the WireCostModel is added to the frame timeout, so large
+     * frames on slow links are not timed out by a timeout learned from
+     * small frames
+     * @return the timeout in ms
+     */
+    private int getFrameResponseTimeout()
+    {
+        long transmitTime = (lastWriteSize * 1000L + wireCostModel.getBytesPerSecond () - 1) / wireCostModel.getBytesPerSecond ();
+        return (int) Math.min (Integer.MAX_VALUE, frameTimeout + transmitTime);
+    }
+
+
+
+    /**
+     * function applying the given LED array to the current frame and sending
+     * the current frame over the Serial connection of this Device and waiting
+     * for "Frame Acknowledgement" or a "Frame Error" response, overloading
+     * the Send() function.
+     * <br/>
+     *When the Frame is null, sending will get skipped without an error message or warning
+     * @param leds the led array to be sent; will be cut to the right size if it
+     *             does not fit onto the actual LED strip
+     * @throws ConnectionException The device is not connected; Connect
+     * first by establishing a serial connection and using Connect()
+     * @throws TimeoutException no Frame Acknowledgement or frame error
+     * byte received within the timeOut; the device may be disconnected
+     * @throws  FrameErrorException a Frame Error byte was received,
+     * indicating that the previously sent frame could not be applied by the device
+     * @throws IOException the data could not be sent because an IO error
+     * occurred
+     */
+    public void send(LED[] leds) throws TimeoutException, FrameErrorException, IOException
+    {
+        setLeds (leds);
+        send ();
+    }
+
+
+
+    /**
+     * function applying the given LED array and offset to the current frame
+     * and sending the current frame over the Serial connection of this Device
+     * and waiting for "Frame Acknowledgement" or a "Frame Error" response,
+     * overloading the Send() function
+     * <br/>
+     *When the Frame is null, sending will get skipped without an error message or warning
+     * @param leds the LED array to be sent; will be cut to the right size if it
+     *            does not fit onto the actual LED strip
+     * @param offset the offset for the given LED array when applying;
+     * @throws ConnectionException The device is not connected; Connect
+     * first by establishing a serial connection and using Connect()
+     * @throws TimeoutException no Frame Acknowledgement or frame error
+     * byte received within the timeOut; the device may be disconnected
+     * @throws  FrameErrorException a Frame Error byte was received,
+     * indicating that the previously sent frame could not be applied by the device
+     * @throws OutOfRangeException the given offset value is invalid
+     * according to the ALUP v. 0.1
+     * @throws IOException the data could not be sent because an IO error
+     *  occurred
+     */
+    public void send(LED[] leds, int offset) throws TimeoutException, FrameErrorException, IOException
+    {
+        setLeds (leds);
+        setOffset (offset);
+        send ();
+    }
+
+
+    /**
+     * function sending the most recently published buffer of the given frame
+     * buffer and waiting for responses like send()
+     * <br/>
+     * The LEDs are taken from the frame buffer without touching the current
+     * frame of this device, so another thread can render and publish the
+     * next frame meanwhile. If nothing was published since the last call,
+     * the last published buffer is sent again.
+     * <br/>
+     * Note: the frame buffer has to be sent by one thread only
+     * @param buffer the frame buffer to send; has to be non-null. Nothing is
+     *               sent if no buffer was published yet
+     * @throws NullPointerException the given frame buffer is null
+     * @throws ConnectionException The device is not connected; Connect
+     * first by establishing a serial connection and using Connect()
+     * @throws TimeoutException no Frame Acknowledgement or frame error
+     * byte received within the timeOut; the device may be disconnected
+     * @throws  FrameErrorException a Frame Error byte was received,
+     * indicating that a sent frame could not be applied by the device
+     * @throws IOException the data could not be sent because an IO error
+     * occurred
+     */
+    public void send(FrameBuffer buffer) throws TimeoutException, FrameErrorException, IOException
+    {
+        if(buffer == null)
+        {
+            throw new NullPointerException ("the given frame buffer is null");
+        }
+        submitFrame (buffer.takeLatest (), false, 0);
+    }
+
+
+    /**
+     * function sending all segments of the given frame segments which were
+     * published since the last call, waiting for responses like send()
+     * <br/>
+     * Adjacent published segments are combined into one frame; every other
+     * published segment is sent as a frame of its own at its offset. LEDs
+     * outside of the published segments are not changed.
+     * <br/>
+     * Note: the frame segments have to be sent by one thread only
+     * @param segments the frame segments to send; has to be non-null
+     * @throws NullPointerException the given frame segments are null
+     * @throws ConnectionException The device is not connected; Connect
+     * first by establishing a serial connection and using Connect()
+     * @throws TimeoutException no Frame Acknowledgement or frame error
+     * byte received within the timeOut; the device may be disconnected
+     * @throws  FrameErrorException a Frame Error byte was received,
+     * indicating that a sent frame could not be applied by the device
+     * @throws IOException the data could not be sent because an IO error
+     * occurred
+     */
+    public void send(FrameSegments segments) throws TimeoutException, FrameErrorException, IOException
+    {
+        if(segments == null)
+        {
+            throw new NullPointerException ("the given frame segments are null");
+        }
+        for(Frame segmentFrame : segments.takePublished ())
+        {
+            submitFrame (segmentFrame, false, 0);
+        }
+    }
+
+
+    /**
+     * function sending all given frames with a single write over the
+     * connection of this Device and waiting for their responses
+     * <br/>
+     * The frames are clamped like in send() and encoded back to back, so for
+     * example several offset updates, or a subcommand frame followed by LED
+     * data, reach the device in one packet. Each frame is acknowledged by the
+     * device on its own; the responses are matched to the frames in order and
+     * this function waits for them like send() does for a single frame.
+     * <br/>
+     * If a chunk size is set, the frames are written one after another, each
+     * of them in chunks; see setChunkSize()
+     * <br/>
+     * Note: the slave device has to be able to buffer all frames of the batch
+     * @param frames the frames to send, in order; have to be non-null
+     * @throws ConnectionException The device is not connected; Connect
+     * first by establishing a serial connection and using Connect()
+     * @throws TimeoutException no Frame Acknowledgement or frame error
+     * byte received within the timeOut; the device may be disconnected
+     * @throws  FrameErrorException a Frame Error byte was received for one of
+     * the frames; see FrameErrorException.getFrameNumber()
+     * @throws IOException the data could not be sent because an IO error
+     *  occurred
+     * @throws NullPointerException one of the given frames is null
+     */
+    public void sendBatch(Frame... frames) throws TimeoutException, FrameErrorException, IOException
+    {
+        //check if the connection was established before
+        if(connectionState != CONNECTION_STATE.CONNECTED)
+        {
+            throw new ConnectionException ("The device is not connected; Please establish a connection before sending data");
+        }
+        if(frames.length == 0)
+        {
+            //there is no data to send
+            return;
+        }
+
+        //check the frames before anything gets encoded
+        for(Frame batchFrame : frames)
+        {
+            if(batchFrame == null)
+            {
+                throw new NullPointerException ( "the given batch contains a null frame");
+            }
+        }
+
+        encoder.reset ();
+        if(encoder.getChunkLeds () > 0)
+        {
+            //the LEDs are not tracked; the frames are encoded chunk by chunk
+            // while writing them
+            encoder.beginChunks (frames);
+        }
+        else
+        {
+            //encode all frames into the wire buffer
+            for(Frame batchFrame : frames)
+            {
+                appendFrame (batchFrame);
+            }
+        }
+
+        //send all frames at once
+        transmit (frames.length);
+    }
+
+
+    /**
+     * function serializing the given frame according to the ALUP v. 0.1 frame
+     * specifications and sending it over the serial connection
+     * <br/>
+     * Note: This function is for raw frame sending only. Please use Send()
+     * instead as it also checks for acknowledgements and is more save to use.
+     * The frame is not clamped to the LED strip.
+     * @param frame the frame to be sent; has to be non-null
+     * @throws IOException an IO error occurred while sending the data
+     */
+    private void sendFrame(Frame frame) throws IOException
+    {
+        //serialize the header and the frame body into the wire buffer and
+        // send them with one write
+        encoder.reset ();
+        int frameSize = encoder.appendUnclamped (frame);
+        writeBytes (encoder.getBuffer (), 0, frameSize);
+    }
+
+
+    /**
+     * function sending the first byte of the given short value over the serial
+     * connection of this device
+     * @param value a number ranging from 0-255
+     * @throws IOException an IO error occurred while sending the data
+     *              <br/>
+     *  Note: Only the first byte of the given short number will be sent over
+     *              the serial connection.
+     *              <br/>
+     *              This has to be done because Java has no support for unsigned
+     *              values.
+     *              <br/>
+     *              Therefore the actual value from 0-255 given to this function will be sent
+     */
+    private void sendUnsignedByte(short value) throws IOException
+    {
+        //get the first byte of the short
+        byte lowByte = (byte) (value & 0xff);
+
+        //send it over the device's serial connection
+        writeBytes (new byte[]{lowByte});
+    }
+
+
+
+    /**
+     * function sending a connection acknowledgement to the serial device
+     * @throws IOException an IO error occurred while sending the data
+     */
+    private void sendConnectionAcknowledgement ( ) throws IOException
+    {
+        writeBytes (new byte[]{Constants.CONNECTION_ACKNOWLEDGEMENT_BYTE});
+    }
+
+    /**
+     * function sending a configuration acknowledgement to the serial device
+     * indicating that the configuration was received and applied correctly
+     * @throws IOException an IO error occurred while sending the data
+     */
+    private void sendConfigurationAcknowledgement ( ) throws IOException
+    {
+        writeBytes (new byte[]{Constants.CONFIGURATION_ACKNOWLEDGEMENT_BYTE});
+    }
+
+    /**
+     * function sending a connection abort signal to the serial device
+     * indicating that the configuration caused an error and the connection
+     * attempt will be stopped
+     * @throws IOException an IO error occurred while sending the data
+     */
+    private void sendConfigurationError() throws IOException
+    {
+        writeBytes (new byte[]{Constants.CONFIGURATION_ERROR_BYTE});
+    }
+
+
+    /**
+     * function sending a disconnect command inside an empty frame to the device
+     * @throws IOException an IO error occurred while sending the data
+     */
+    private  void sendDisconnectFrame() throws IOException
+    {
+        //make a new empty frame; the current frame is kept
+        Frame disconnectFrame = new Frame ();
+        //set the disconnect command to the frame
+        disconnectFrame.setProtocolCommand (Constants.COMMAND_DISCONNECT);
+        //send the frame without waiting for a response from the device
+        sendFrame (disconnectFrame);
+    }
+
+    //endregion
+
+    //region receiver functions
+
+
+    /**
+     * function receiving the configuration of the device over the serial
+     * connection and applying it to this device
+     * <br/>
+     * Note: This function blocks until the configuration was received successfully.
+     * <br/>
+     *  Retrieve it using getConfiguration()
+     *  @param handshakeDeadline the value of System.nanoTime() at which the
+     *                           whole handshake has to be finished
+     *  @throws TimeoutException the configuration could not be received
+     *  completely within the configuration timeout or before the handshake
+     *  deadline
+     *  @throws IncompatibleVersionException The protocol Version of the
+     *  SerialDevice and the version at Constants.VERSION
+     *                      do not match and are therefore incompatible
+     * @throws IllegalArgumentException The configuration received from
+     * the device or parts of it were invalid. Therefore the
+     *                      connection attempt was stopped
+     * @throws IOException the configuration could not be received, because
+     * an IO error occurred
+     */
+    private void receiveConfiguration (long handshakeDeadline) throws IncompatibleVersionException, TimeoutException, IllegalArgumentException, IOException
+    {
+        //the whole configuration has to be exchanged within the timeout,
+        // without exceeding the deadline of the handshake
+        long deadline = Math.min (handshakeDeadline, System.nanoTime () + TimeUnit.MILLISECONDS.toNanos (configurationTimeout));
+
+        //Wait for the configuration start byte
+        if(waitForOneOfUntil (deadline, Constants.CONFIGURATION_START_BYTE) != 0)
+        {
+            //no configuration start byte received within the timeOut
+            throw  new TimeoutException ( "No configuration start byte received in time");
+        }
+
+        //read the configuration values
+        String protocolVersion = receiveString (deadline);
+        //check if the protocol version is compatible with the one used here
+        checkProtocolVersion(protocolVersion);
+
+        String deviceName = receiveString (deadline);
+        int numOfLeds = receiveInt (deadline);
+        int dataPin = receiveInt (deadline);
+        int clockPin = receiveInt (deadline);
+        String extraValues = receiveString (deadline);
+
+        try
+        {
+            //apply the values to the configuration
+            configuration = new DeviceConfiguration(protocolVersion, deviceName, numOfLeds, dataPin, clockPin, extraValues);
+            //keep the last known LEDs if the number of LEDs did not change,
+            // so they can be restored after reconnecting
+            if(shadow == null || shadow.getNumOfLeds () != numOfLeds || encoder.getChunkLeds () != chunkSize)
+            {
+                createFrameBuffers (numOfLeds);
+            }
+        }
+        catch (IllegalArgumentException e)
+        {
+            //at least one of the given configuration values was illegal
+            sendConfigurationError ();
+            throw e;
+        }
+
+        //configuration received and applied successfully
+        //send a configuration acknowledgement
+        sendConfigurationAcknowledgement();
+
+        //wait for a configuration acknowledgement from the slave device to
+        // finish the configuration process
+        if(waitForOneOfUntil (deadline, Constants.CONFIGURATION_ACKNOWLEDGEMENT_BYTE) != 0)
+        {
+            //no configuration Acknowledgement received within the timeOut
+            //something probably went wrong on the device
+            invalidateConnection ();
+            throw new TimeoutException ( "No Configuration Acknowledgement received: Device not responding");
+        }
+    }
+
+
+    /**
+     * receive a String over the serial connection until a null terminator ('\0')
+     * is received
+     * <br/>
+     * The characters are taken from the receive buffer in bulk; only if the
+     * terminator was not received yet, more data is waited for.
+     * <br/>
+     * Note: This function blocks until a null byte is received and a string is
+     * returned
+     * @param deadline the value of System.nanoTime() at which waiting is stopped
+     * @return the string which was read from the serial Connection
+     * @throws TimeoutException the string could not be received completely
+     * before the deadline
+     * @throws IOException the string could not be received because an
+     * IO error occurred
+     */
+    private String receiveString (long deadline) throws TimeoutException, IOException
+    {
+        ByteArrayOutputStream byteBuffer = new ByteArrayOutputStream ( );
+        while(true)
+        {
+            if(receivePosition >= receiveLimit && !fillReceiveBuffer (deadline))
+            {
+                throw new TimeoutException ( "No complete string received in time");
+            }
+
+            //search the received bytes for the end of the string
+            int end = receivePosition;
+            while(end < receiveLimit && receiveBuffer[end] != 0x00)
+            {
+                end++;
+            }
+            byteBuffer.write (receiveBuffer, receivePosition, end - receivePosition);
+
+            if(end < receiveLimit)
+            {
+                //end of the string reached; skip the null byte
+                receivePosition = end + 1;
+                break;
+            }
+            receivePosition = end;
+        }
+
+        //convert the byte buffer to a string and return it
+        return new String(byteBuffer.toByteArray (), StandardCharsets.UTF_8);
+    }
+
+
+    /**
+     * function receiving an integer value over the serial port of this device
+     * Note: This function blocks until an integer value is received and returned
+     * @param deadline the value of System.nanoTime() at which waiting is stopped
+     * @return the received integer value
+     * @throws TimeoutException the integer value could not be received
+     * before the deadline
+     * @throws IOException the integer value could not be received beacuse an
+     * IO error occurred
+     */
+    private int receiveInt(long deadline) throws TimeoutException, IOException
+    {
+        //the integer is sent in big endian byte order
+        int value = 0;
+        for(int i = 0; i < 4; i++)
+        {
+            int rxByte = receiveByte (deadline);
+            if(rxByte == -1)
+            {
+                throw new TimeoutException ( "No integer value received in time");
+            }
+            value = (value << 8) | rxByte;
+        }
+        return value;
+    }
+
+
+
+    /**
+     * function receiving one unsigned byte over the serial connection
+     * Note: This function blocks until a byte is received and returned
+     *
+     * @return the byte received over the serial connection represented as a
+     * short, ranging from 0 - 255
+     * Note: a return type of short has to be used as java does not support
+     * unsigned type variables.
+     * By using a short, it's possible for this function to return an unsigned
+     * byte value anyways
+     * @throws TimeoutException no byte was received within the timeout
+     * @throws IOException the unsigned byte could not be received because
+     * an IO error occurred
+     */
+    private short receiveUnsignedByte() throws TimeoutException, IOException
+    {
+        int rxByte = receiveByte (System.nanoTime () + TimeUnit.MILLISECONDS.toNanos (configurationTimeout));
+        if(rxByte == -1)
+        {
+            throw new TimeoutException ( "No byte received within " + configurationTimeout + " ms");
+        }
+        return (short) rxByte;
+    }
+
+
+    /**
+     * function returning the next received byte, waiting for data to arrive
+     * if the receive buffer is empty
+     * <br/>
+     * Note: This function blocks until a byte is received or the given
+     * deadline was reached
+     * @param deadline the value of System.nanoTime() at which waiting is stopped
+     * @return the received byte as unsigned value from 0-255, or -1 if no
+     * byte was received before the deadline
+     * @throws IOException the byte could not be received because an
+     * IO error occurred
+     */
+    private int receiveByte(long deadline) throws IOException
+    {
+        if(receivePosition >= receiveLimit && !fillReceiveBuffer (deadline))
+        {
+            //no data arrived before the deadline
+            return -1;
+        }
+        return receiveBuffer[receivePosition++] & 0xff;
+    }
+
+
+    /**
+     * function refilling the empty receive buffer with all bytes which can be
+     * read at once, waiting for data according to the wait strategy of this
+     * device until data arrives or the deadline was reached
+     * @param deadline the value of System.nanoTime() at which waiting is stopped
+     * @return true, if new bytes were received, false if the deadline was reached
+     * @throws IOException the bytes could not be received because an
+     * IO error occurred or the thread was interrupted
+     */
+    private boolean fillReceiveBuffer(long deadline) throws IOException
+    {
+        receivePosition = 0;
+        receiveLimit = 0;
+
+        WaitStrategy strategy = waitStrategy;
+        for(int iteration = 0; ; iteration++)
+        {
+            if(Thread.currentThread ().isInterrupted ())
+            {
+                //stop waiting, for example because a background connection
+                // was stopped
+                throw new InterruptedIOException ( "Interrupted while waiting for data");
+            }
+            long remaining = deadline - System.nanoTime ();
+
+            int received;
+            if(strategy.isBlocking ())
+            {
+                if(remaining <= 0)
+                {
+                    return false;
+                }
+                //round up so a remaining time below 1 ms still blocks
+                int timeOut = (int) Math.max (1, TimeUnit.NANOSECONDS.toMillis (remaining + 999999));
+                received = readAvailableBytes (receiveBuffer, timeOut);
+            }
+            else
+            {
+                //only read the bytes which already arrived
+                received = readAvailableBytes (receiveBuffer, 0);
+                if(received <= 0)
+                {
+                    if(remaining <= 0)
+                    {
+                        return false;
+                    }
+                    strategy.idle (iteration, remaining);
+                }
+            }
+
+            if(received > 0)
+            {
+                receiveLimit = received;
+                return true;
+            }
+        }
+    }
+    //endregion
+
+    //region waiter functions
+
+    /**
+     * function waiting, until the specified byte was received via the serial
+     * connection or the timeout limit was reached
+     * <br/>
+     * Note: This function blocks until the specified byte is received or the
+     * specified timeout  was reached
+     * <br/>
+     * @param b the byte which should be received
+     * @param timeOut the time limit for this function to receive the specified
+     *               byte in milliseconds; has to be > 0
+     * @return true, if the specified byte was received, false if the timeout
+     * was exceeded
+     * @throws IOException the byte could not be received because an
+     * IO error occurred
+     */
+    private boolean waitForByte(Byte b, int timeOut) throws IOException
+    {
+        return waitForOneOf (timeOut, b) == 0;
+    }
+
+
+    /**
+     * function waiting, until one of the specified bytes was received via the
+     * serial connection or the timeout limit was reached
+     * <br/>
+     * Note: This function blocks until one of the specified byte is received or
+     * the specified timeout  was reached
+     * <br/>
+     * @param timeOut the time limit for this function to receive the specified
+     *                byte in milliseconds; has to be > 0
+     * @param bytes the bytes to wait for
+     * @return the index of the received byte, or -1 if the timeOut was exceeded
+     * @throws IOException the byte could not be received because an
+     * IO error occurred
+     */
+    private  int waitForOneOf( int timeOut, byte... bytes) throws IOException
+    {
+        return waitForOneOfUntil (System.nanoTime () + TimeUnit.MILLISECONDS.toNanos (timeOut), bytes);
+    }
+
+
+    /**
+     * function waiting, until one of the specified bytes was received via the
+     * serial connection or the given deadline was reached
+     * @param deadline the value of System.nanoTime() at which waiting is stopped
+     * @param bytes the bytes to wait for
+     * @return the index of the received byte, or -1 if the deadline was reached
+     * @throws IOException the byte could not be received because an
+     * IO error occurred
+     */
+    private int waitForOneOfUntil(long deadline, byte... bytes) throws IOException
+    {
+        while(true)
+        {
+            //wait for the next byte
+            int rxByte = receiveByte (deadline);
+            if(rxByte == -1)
+            {
+                //the specified byte could not be received within the timeOut limit
+                return -1;
+            }
+
+            //check if the received byte equals one of the specified bytes
+            for(int j = 0; j < bytes.length; j++)
+            {
+                if((byte) rxByte == bytes[j])
+                {
+                    //the received byte equals the specified byte
+                    return j;
+                }
+            }
+        }
+    }
+
+
+    /**
+     * function checking the received bytes for one of the specified bytes
+     * without waiting for more data; all other bytes are discarded
+     * @param bytes the bytes to check for
+     * @return the index of the first received byte which equals one of the
+     * given bytes; -1 if none of them was received yet
+     * @throws IOException an IO error occurred while reading the data
+     */
+    private int pollOneOf(byte... bytes) throws IOException
+    {
+        while(true)
+        {
+            if(receivePosition >= receiveLimit)
+            {
+                //only read the bytes which already arrived
+                receivePosition = 0;
+                receiveLimit = Math.max (0, readAvailableBytes (receiveBuffer, 0));
+                if(receiveLimit == 0)
+                {
+                    return -1;
+                }
+            }
+
+            byte rxByte = receiveBuffer[receivePosition++];
+            for(int j = 0; j < bytes.length; j++)
+            {
+                if(rxByte == bytes[j])
+                {
+                    return j;
+                }
+            }
+        }
+    }
+
+    /**
+     * function waiting for a connection request, returning as soon as a
+     * connection request was received
+     * Note: This function blocks until a byte is received or the given
+     * deadline was reached
+     * @param deadline the value of System.nanoTime() at which waiting is stopped
+     * @return true, if the byte was received, else false
+     * @throws IOException the byte could not be received because an
+     * IO error occurred
+     */
+    private boolean waitForConnectionRequest (long deadline) throws IOException
+    {
+        //try to receive a connection request before the handshake deadline
+        return waitForOneOfUntil (deadline, Constants.CONNECTION_REQUEST_BYTE) == 0;
+    }
+
+    //endregion
+
+
+
+    //region clear
+    /**
+     * function setting all LEDs of the device to 0
+     * @throws TimeoutException  no frame acknowledgement received within
+     * the timeout limit
+     * @throws IOException the data could not be sent because an IO error
+     * occurred
+     */
+    public void clear() throws TimeoutException, IOException
+    {
+        //create a new empty frame; the current frame is kept
+        Frame clearFrame = new Frame ( );
+        //set the clear command
+        clearFrame.setProtocolCommand (Constants.COMMAND_CLEAR);
+        //send it to the device
+        submitFrame (clearFrame, false, 0);
+    }
+
+    /**
+     * function setting all LEDs of the device to 0
+     * In comparison to Clear(), this function catches TimeoutExceptions
+     * and IOExceptions by printing the StackTrace to the terminal.
+     */
+    public void simpleClear()
+    {
+        try
+        {
+            clear();
+        }
+        catch (TimeoutException | IOException e)
+        {
+            e.printStackTrace ( );
+        }
+    }
+
+
+    /**
+     * function setting the command of the current frame to clear; when
+     * used with a non-empty frame, this will set all unchanged LEDs to black
+     * @param state true, if the clear command should be set, else false
+     */
+    public void setClear(boolean state)
+    {
+        if(state)
+        {
+            frame.setProtocolCommand (Constants.COMMAND_CLEAR);
+        }
+        else
+        {
+            frame.setProtocolCommand (Constants.COMMAND_NONE);
+        }
+    }
+
+    //endregion
+
+
+
+    //region getter
+
+    /**
+     * function returning the currently for this device stored LEDs or, if no
+     * LEDs are stored, a new LED array with all possible LEDs set to 0
+     * @return an array of LEDs; guaranteed to be non-null
+     */
+    public LED[] getLeds()
+    {
+        //check if the current frame is null
+        if(frame == null)
+        {
+            //the current frame is null; create a new one
+            frame = new Frame ();
+        }
+
+        //check if the currently stored LED array is null or empty
+        if(frame.getLeds () == null || frame.getLeds ().length == 0)
+        {
+            //the currently stored LED array is null or empty; initialize a new array
+            // with the maximum size
+            LED[] leds = new LED[configuration.getNumOfLeds ()];
+            for(int i = 0; i < leds.length; i++)
+            {
+                leds[i] = new LED ( 0,0,0);
             }
+            frame.setLeds (leds);
+        }
+
+        return frame.getLeds ();
+    }
+
+
+    /**
+     * getter for the round trip time of the last Frame
+     * @return the round trip time to the device from the last frame sent until its answer
+     * in nanoseconds
+     */
+    public long getRtt()
+    {
+        return rtt;
+    }
+
+
+
+    /**
+     * getter for the round trip time of the last Frame
+     * @return the round trip time to the device from the last frame sent until its answer
+     * in milliseconds
+     */
+    public long getRttMS()
+    {
+        return rtt / 1000000;
+    }
+
+    public int getOffset()
+    {
+        return frame.getHeader ().getOffset ();
+    }
+
+
+    public boolean isDeltaMode()
+    {
+        return deltaMode;
+    }
+
+    public int getChunkSize()
+    {
+        return chunkSize;
+    }
+
+    public boolean isAutoConfiguration()
+    {
+        return autoConfiguration;
+    }
+
+    public int getMaxFrameRate()
+    {
+        return maxFrameRate;
+    }
+
+    public int getBandwidthBudget()
+    {
+        return budgetFrameRate;
+    }
+
+    public boolean isDuplicateSuppression()
+    {
+        return duplicateSuppression;
+    }
+
+    public boolean isStreamingMode()
+    {
+        return streamingMode;
+    }
+
+    public ReconnectPolicy getReconnectPolicy()
+    {
+        return reconnectPolicy;
+    }
+
+    public ReconnectListener getReconnectListener()
+    {
+        return reconnectListener;
+    }
+
+    public int getSyncInterval()
+    {
+        return syncInterval;
+    }
+
+    public int getHandshakeTimeout()
+    {
+        return handshakeTimeout;
+    }
+
+    public int getConfigurationTimeout()
+    {
+        return configurationTimeout;
+    }
+
+    /**
+     * getter for the current frame timeout
+     * @return the time in ms to wait for a frame response, adapted to the
+     * measured rtt; the time needed for transmitting the frame is added to it
+     */
+    public int getFrameTimeout()
+    {
+        return frameTimeout;
+    }
+
+    public int getMinFrameTimeout()
+    {
+        return minFrameTimeout;
+    }
+
+    public int getMaxFrameTimeout()
+    {
+        return maxFrameTimeout;
+    }
+
+    public double getFrameTimeoutFactor()
+    {
+        return frameTimeoutFactor;
+    }
+
+    /**
+     * function calculating a percentile of the rtt of the recently
+     * acknowledged frames of the current connection
+     * @param percentile the percentile to calculate; between 0 and 1, for
+     *                   example 0.99 for the 99th percentile
+     * @return the rtt percentile in nanoseconds; -1 if no frame was
+     * acknowledged yet
+     */
+    public long getRttPercentile(double percentile)
+    {
+        return rttStatistics.percentile (percentile);
+    }
+
+    /**
+     * getter for the sync period
+     * @return the time in milliseconds after which a synchronizing frame is
+     * sent in streaming mode; 0 if disabled
+     */
+    public long getSyncPeriod()
+    {
+        return TimeUnit.NANOSECONDS.toMillis (syncPeriod);
+    }
+
+    /**
+     * getter for the keepalive interval
+     * @return the time in milliseconds after which a duplicate frame is sent
+     * anyway
+     */
+    public long getKeepAliveInterval()
+    {
+        return TimeUnit.NANOSECONDS.toMillis (keepAliveInterval);
+    }
+
+    public WaitStrategy getWaitStrategy()
+    {
+        return waitStrategy;
+    }
+
+    /**
+     * getter for the model deciding how the changed LEDs are split into
+     * frames in delta mode
+     * <br/>
+     * Use it to set the bandwidth of the link or to inspect the frames
+     * planned for the last frame sent in delta mode
+     * @return the wire cost model of this device
+     */
+    public WireCostModel getWireCostModel()
+    {
+        return wireCostModel;
+    }
+
+
+    /**
+     * getter for the pipeline depth
+     * @return the maximum number of frames which may be sent without
+     * waiting for their response
+     */
+    public int getPipelineDepth()
+    {
+        return pipelineDepth;
+    }
+
+
+    /**
+     * function returning the number of frames which were sent but not yet
+     * answered by the device
+     * @return the number of frames in flight
+     */
+    public int getFramesInFlight()
+    {
+        return inFlightFrames.size ();
+    }
+
+
+    /**
+     * function returning the number of frames sent over the current
+     * connection; the sequence number of a frame is the value this
+     * function returned right before it was sent
+     * @return the number of frames sent since the last connect()
+     */
+    public long getFramesSent()
+    {
+        return framesSent;
+    }
+
+
+    /**
+     * function returning the number of frames skipped by send() because they
+     * would not have changed any LED; see setDuplicateSuppression()
+     * @return the number of skipped frames since the last connect()
+     */
+    public long getFramesSkipped()
+    {
+        return framesSkipped;
+    }
+
+
+    /**
+     * function returning the number of frames dropped by sendBefore() because
+     * they could not be written before their deadline
+     * @return the number of frames dropped late since the last connect()
+     */
+    public long getFramesDroppedLate()
+    {
+        return framesDroppedLate;
+    }
+
+
+    /**
+     * function returning the number of frames of which only a part of the
+     * changes was sent because of the bandwidth budget
+     * @return the number of frames over budget since the last connect()
+     */
+    public long getFramesOverBudget()
+    {
+        return framesOverBudget;
+    }
+
+
+    /**
+     * function returning the number of times the connection was lost while
+     * the automatic reconnection was enabled
+     * @return the number of outages
+     */
+    public long getOutageCount()
+    {
+        return outageCount;
+    }
+
+
+    /**
+     * function returning the number of attempts made by the automatic
+     * reconnection, including the successful ones
+     * @return the number of reconnection attempts
+     */
+    public long getReconnectAttempts()
+    {
+        return reconnectAttempts;
+    }
+
+
+    /**
+     * function returning how long the last outage which ended with a
+     * reconnection lasted
+     * @return the time from losing the connection until it was restored in
+     * nanoseconds; 0 if the device was never reconnected
+     */
+    public long getLastOutageDuration()
+    {
+        return lastOutageDuration;
+    }
+
+
+    /**
+     * function returning the number of frames sent in streaming mode whose
+     * response was not received yet
+     * @return the number of unacknowledged streamed frames
+     */
+    public long getUnacknowledgedFrames()
+    {
+        return unacknowledgedFrames;
+    }
+
+
+    /**
+     * function returning the number of frame errors received for frames
+     * sent in streaming mode; these are not reported by send()
+     * @return the number of discarded frame errors since the last connect()
+     */
+    public long getDiscardedFrameErrors()
+    {
+        return discardedFrameErrors;
+    }
+
+
+    /**
+     * function indicating if this device is fully connected and ready for data
+     * transmission
+     * @return true, if the device is fully connected, else false
+     */
+    public boolean isConnected()
+    {
+        return connectionState == CONNECTION_STATE.CONNECTED;
+    }
+
+
+    /**
+     * function returning the connection state of this device
+     * @return the connection state of this device; one of CONNECTION_STATE
+     */
+    public CONNECTION_STATE getConnectionState()
+    {
+        return connectionState;
+    }
+
+    /**
+     * function returning the configuration of this device
+     * @return the device configuration or null if no configuration was received yet
+     */
+    public DeviceConfiguration getConfiguration()
+    {
+        return configuration;
+    }
+
+//endregion
+
+
+
+    //region setter
+    /**
+     * function setting the subcommand for a subprogram which should be
+     * executed on the receiving device
+     * @param id the ID of the subprogram to execute; has to be within a range of 0-247
+     * @throws IllegalArgumentException the given ID is not within a range of 0-247
+     */
+    public void setSubcommand(int id)
+    {
+        if(frame == null)
+        {
+            //create a new Frame with an empty LED array and default headers
+            frame = new Frame ( );
         }
-
-        //convert the byte buffer to a string and return it
-        Byte[] finalBytes = new Byte[byteBuffer.size ()];
-        byteBuffer.toArray ( finalBytes);
-        return new String(ArrayUtils.toPrimitive (finalBytes), StandardCharsets.UTF_8);
+        //set the subcommand of the given ID
+        frame.setSubcommand (id);
     }
 
 
 
     /**
-     * function receiving an integer value over the serial port of this device
-     * Note: This function blocks until an integer value is received and returned
-     * @return the received integer value
-     * @throws IOException the integer value could not be received beacuse an
-     * IO error occurred
+     * function setting the led values of this frame; automatically cuts the
+     * array to the size of the led strip if it is too large
+     * @param leds the led values to be set
      */
-    private int receiveInt() throws IOException
+    public void setLeds(LED[] leds)
     {
-        while(true)
+        if(frame == null)
         {
-            if(bytesAvailable () >= 4)
-            {
-                byte[] rxBytes = new byte[4];
-                readBytes (rxBytes, 4);
-                return Convert.BytesToInt(rxBytes);
-            }
+            //create a new frame if there is no frame
+            frame = new Frame ( );
         }
+        frame.setLeds (leds);
     }
 
 
 
     /**
-     * function receiving one unsigned byte over the serial connection
-     * Note: This function blocks until a byte is received and returned
-     *
-     * @return the byte received over the serial connection represented as a
-     * short, ranging from 0 - 255
-     * Note: a return type of short has to be used as java does not support
-     * unsigned type variables.
-     * By using a short, it's possible for this function to return an unsigned
-     * byte value anyways
-     * @throws IOException the unsigned byte could not be received because
-     * an IO error occurred
+     * function setting the offset for the current frame
+     * @param offset the value to set the body offset to; has to be a positive
+     *              value; the offset + leds.length has to be smaller than the number
+     *              of leds connected to the device
+     *  @throws OutOfRangeException the offset value of the frame which
+     *  should be sent was invalid
      */
-    private short receiveUnsignedByte() throws IOException
+    public void setOffset(int offset)
     {
-        while (true)
+        //create a new frame if there is no frame
+        if(frame == null)
         {
-            if(bytesAvailable () > 0)
-            {
-                byte[] rxByte = new byte[1];
-                readBytes (rxByte, 1);
-                //convert the signed byte to its unsigned value and return it as a short
-                return (short) (rxByte[0] & 0xff);
-
-            }
+            frame = new Frame ( );
         }
+
+        frame.setOffset (offset);
     }
-    //endregion
 
-    //region waiter functions
 
     /**
-     * function waiting, until the specified byte was received via the serial
-     * connection or the timeout limit was reached
+     * function enabling or disabling the delta mode of this device
      * <br/>
-     * Note: This function blocks until the specified byte is received or the
-     * specified timeout  was reached
+     * In delta mode, the device keeps a copy of the LEDs shown by the slave
+     * device and every sent frame only contains the LEDs which changed, sent
+     * with the body offset and without the clear command. Distant changes
+     * are sent as separate frames if the WireCostModel of this device
+     * considers this cheaper than resending the unchanged LEDs between them.
+     * The result on the LED strip is the same as sending the whole frame, but
+     * for mostly static content far less data is transmitted.
      * <br/>
-     * @param b the byte which should be received
-     * @param timeOut the time limit for this function to receive the specified
-     *               byte in milliseconds; has to be > 0
-     * @return true, if the specified byte was received, false if the timeout
-     * was exceeded or the function was interrupted
-     * @throws IOException the byte could not be received because an
-     * IO error occurred
+     * Frames with subcommands are always sent as they are; afterwards, and
+     * after frame errors, the whole LED strip is sent once.
+     * @param deltaMode true, if only changed LEDs should be sent, else false
      */
-    private boolean waitForByte(Byte b, int timeOut) throws IOException
+    public void setDeltaMode(boolean deltaMode)
     {
-        return waitForOneOf (timeOut, b) == 0;
+        this.deltaMode = deltaMode;
     }
 
 
     /**
-     * function waiting, until one of the specified bytes was received via the
-     * serial connection or the timeout limit was reached
+     * function enabling or disabling the automatic choice of the send
+     * settings by the capabilities of the device
      * <br/>
-     * Note: This function blocks until one of the specified byte is received or
-     * the specified timeout  was reached
+     * When enabled, the pipeline depth, the streaming mode, the sync interval
+     * and the maximum frame rate are set every time the device connects,
+     * according to the capabilities announced inside the extra values of its
+     * configuration; see DeviceCapabilities. Devices which do not announce
+     * any capabilities wait for the response of every frame.
      * <br/>
-     * @param timeOut the time limit for this function to receive the specified
-     *                byte in milliseconds; has to be > 0
-     * @param bytes the bytes to wait for
-     * @return the index of the received byte, or -1 if the timeOut was exceeded
-     * or the function was interrupted
-     * @throws IOException the byte could not be received because an
-     * IO error occurred
+     * Note: the settings made by the automatic configuration override the
+     * ones set before connecting
+     * @param autoConfiguration true, if the settings should be chosen
+     *                          automatically, else false
      */
-    private  int waitForOneOf( int timeOut, byte... bytes) throws IOException
+    public void setAutoConfiguration(boolean autoConfiguration)
     {
-        //try to read the specified byte every 1ms
-        for(int i = 0; i < timeOut; i++)
-        {
-            //check if there are bytes available to read
-            if(bytesAvailable () > 0)
-            {
-                //read a byte from the buffer
-                byte[] rxBytes = new byte[1];
-                readBytes (rxBytes, 1);
-
-                //check if the received byte equals one of the specified bytes
-                for(int j = 0; j < bytes.length; j++)
-                {
-                    if(rxBytes[0] == bytes[j])
-                    {
-                        //the received byte equals the specified byte
-                        return j;
-                    }
-                }
-            }
-
-            try
-            {
-                //sleep for 1 millisecond
-                Thread.sleep (1);
-            }
-            catch (InterruptedException e)
-            {
-                //the sleep got interrupted unexpectedly
-                e.printStackTrace ( );
-                return -1;
-            }
-        }
-        //the specified byte could not be received within the timeOut limit
-        return -1;
+        this.autoConfiguration = autoConfiguration;
     }
 
+
     /**
-     * function waiting for a connection request, returning as soon as a
-     * connection request was received
-     * Note: This function blocks until a byte is received or a timeout of 10
-     * seconds was reached
-     * @return true, if the byte was received, else false
-     * @throws IOException the byte could not be received because an
-     * IO error occurred
+     * function limiting the number of frames with LED data sent per second
+     * <br/>
+     * send() waits until the frame period passed since the last frame was
+     * written, so the device is never sent frames faster than it can show
+     * them. Control frames are not limited.
+     * @param maxFrameRate the maximum number of frames per second; has to be
+     *                     >= 0. 0 disables the limit (default)
+     * @throws IllegalArgumentException the given frame rate is negative
      */
-    private boolean waitForConnectionRequest ( ) throws IOException
+    public void setMaxFrameRate(int maxFrameRate)
     {
-        //try for 10s to receive a connection request
-        return waitForByte (Constants.CONNECTION_REQUEST_BYTE, RECEIVER_TIMEOUT);
+        if(maxFrameRate < 0)
+        {
+            throw new IllegalArgumentException ( "The given frame rate of " + maxFrameRate + " is negative");
+        }
+        this.maxFrameRate = maxFrameRate;
+        this.minFrameInterval = maxFrameRate == 0 ? 0 : TimeUnit.SECONDS.toNanos (1) / maxFrameRate;
     }
 
-    //endregion
-
 
-
-    //region clear
     /**
-     * function setting all LEDs of the device to 0
-     * @throws TimeoutException  no frame acknowledgement received within
-     * the timeout limit
-     * @throws IOException the data could not be sent because an IO error
-     * occurred
+     * function fitting every frame into the bandwidth available at the given
+     * frame rate
+     * <br/>
+     * Like in delta mode, only the changed LEDs are sent. If sending all of
+     * them would take longer than one frame period, the changes are ranked
+     * by how visible they are and only the most visible ones fitting into
+     * the byte budget of the frame are sent with separate offset frames. The
+     * budget is the number of bytes the link transmits per frame period
+     * (see WireCostModel.setBytesPerSecond()); each frame is additionally
+     * charged with its header and the frame overhead measured from the rtt.
+     * <br/>
+     * The deferred changes are sent with the following frames, so keep
+     * sending frames until WireCostModel.getDeferredLedCount() is 0 to show
+     * a static image completely. Changes which are never the most visible
+     * ones are deferred as long as larger changes keep coming.
+     * <br/>
+     * Note: has no effect if a chunk size is set
+     * @param targetFrameRate the frame rate to send with; has to be >= 0. 0
+     *                        sends every frame completely (default)
+     * @throws IllegalArgumentException the given frame rate is negative
      */
-    public void clear() throws TimeoutException, IOException
+    public void setBandwidthBudget(int targetFrameRate)
     {
-        //create a new empty frame
-        frame = new Frame ( );
-        //set the clear command
-        frame.setProtocolCommand (Constants.COMMAND_CLEAR);
-        //send it to the device
-        send();
+        if(targetFrameRate < 0)
+        {
+            throw new IllegalArgumentException ( "The given frame rate of " + targetFrameRate + " is negative");
+        }
+        this.budgetFrameRate = targetFrameRate;
     }
 
+
     /**
-     * function setting all LEDs of the device to 0
-     * In comparison to Clear(), this function catches TimeoutExceptions
-     * and IOExceptions by printing the StackTrace to the terminal.
+     * function setting the number of LEDs after which the body of a frame is
+     * split into chunks while writing it
+     * <br/>
+     * By default, every frame is encoded completely before it is written,
+     * which needs a wire buffer and a copy of the LEDs of the device for the
+     * whole LED strip. For LED strips with tens of thousands of LEDs, a chunk
+     * size can be set instead: the header of a frame is written first and
+     * its body is encoded and written in chunks of the given number of LEDs,
+     * so the memory needed for sending is bound by the chunk size and the
+     * first bytes are written right away.
+     * <br/>
+     * Note: as the LEDs of the device are not tracked while a chunk size is
+     * set, the delta mode and the duplicate suppression have no effect and
+     * the automatic reconnection only restores the frames sent while
+     * reconnecting. Frames sent with sendBatch() are chunked one after another.
+     * @param chunkSize the maximum number of LEDs per chunk; has to be >= 0.
+     *                  0 writes every frame at once (default)
+     * @throws IllegalArgumentException the given chunk size is negative
      */
-    public void simpleClear()
+    public void setChunkSize(int chunkSize)
     {
-        try
+        if(chunkSize < 0)
         {
-            clear();
+            throw new IllegalArgumentException ( "The given chunk size of " + chunkSize + " is negative");
         }
-        catch (TimeoutException | IOException e)
+        this.chunkSize = chunkSize;
+        if(configuration != null)
         {
-            e.printStackTrace ( );
+            //the LEDs of the device are unknown to the new buffers
+            createFrameBuffers (configuration.getNumOfLeds ());
         }
     }
 
 
     /**
-     * function setting the command of the current frame to clear; when
-     * used with a non-empty frame, this will set all unchanged LEDs to black
-     * @param state true, if the clear command should be set, else false
+     * function creating the wire buffer and the shadow framebuffer for the
+     * given number of LEDs according to the chunk size
+     * @param numOfLeds the number of LEDs connected to the device
      */
-    public void setClear(boolean state)
+    private void createFrameBuffers(int numOfLeds)
     {
-        if(state)
+        if(chunkSize > 0)
         {
-            frame.setProtocolCommand (Constants.COMMAND_CLEAR);
+            encoder = new FrameEncoder (numOfLeds, chunkSize);
+            shadow = new ShadowFramebuffer (numOfLeds, false);
         }
         else
         {
-            frame.setProtocolCommand (Constants.COMMAND_NONE);
+            encoder = new FrameEncoder (numOfLeds);
+            shadow = new ShadowFramebuffer (numOfLeds);
         }
     }
 
-    //endregion
-
 
+    /**
+     * function enabling or disabling the suppression of duplicate frames
+     * <br/>
+     * When enabled, send() returns immediately without sending anything if
+     * the current frame would not change any LED of the device, for example
+     * while an animation is paused. Such frames are still sent once every
+     * keepalive interval, so watchdogs on the slave device keep seeing data.
+     * <br/>
+     * Note: frames with subcommands are always sent; the number of skipped
+     * frames is returned by getFramesSkipped()
+     * @param duplicateSuppression true, if duplicate frames should be
+     *                             skipped, else false
+     */
+    public void setDuplicateSuppression(boolean duplicateSuppression)
+    {
+        this.duplicateSuppression = duplicateSuppression;
+    }
 
-    //region getter
 
     /**
-     * function returning the currently for this device stored LEDs or, if no
-     * LEDs are stored, a new LED array with all possible LEDs set to 0
-     * @return an array of LEDs; guaranteed to be non-null
+     * function setting the time after which a duplicate frame is sent anyway
+     * while duplicate suppression is enabled
+     * <br/>
+     * Note: keepalive frames are only sent by calls of send(); nothing is
+     * sent while no frames are sent at all
+     * @param keepAliveInterval the interval in milliseconds; has to be >= 0.
+     *                          0 sends every frame (default: 1000)
+     * @throws IllegalArgumentException the given interval is negative
      */
-    public LED[] getLeds()
+    public void setKeepAliveInterval(long keepAliveInterval)
     {
-        //check if the current frame is null
-        if(frame == null)
+        if(keepAliveInterval < 0)
         {
-            //the current frame is null; create a new one
-            frame = new Frame ();
+            throw new IllegalArgumentException ( "The given keepalive interval of " + keepAliveInterval + " ms is negative");
         }
+        this.keepAliveInterval = TimeUnit.MILLISECONDS.toNanos (keepAliveInterval);
+    }
 
-        //check if the currently stored LED array is null or empty
-        if(frame.getLeds () == null || frame.getLeds ().length == 0)
-        {
-            //the currently stored LED array is null or empty; initialize a new array
-            // with the maximum size
-            LED[] leds = new LED[configuration.getNumOfLeds ()];
-            for(int i = 0; i < leds.length; i++)
-            {
-                leds[i] = new LED ( 0,0,0);
-            }
-            frame.setLeds (leds);
-        }
 
-        return frame.getLeds ();
+    /**
+     * function enabling or disabling the automatic reconnection of this device
+     * <br/>
+     * With a policy set, send() does not throw an exception when the
+     * connection is lost. Instead, the device becomes RECONNECTING and
+     * reconnects on a background thread as described by the policy. Frames
+     * passed to send() meanwhile are not sent; only a copy of the latest one
+     * is kept. After reconnecting, the last LEDs confirmed by the device are
+     * sent first, followed by the latest frame, so the LED strip recovers
+     * without the application noticing.
+     * <br/>
+     * Note: disconnect() and connect() stop a running reconnection; changing
+     * the policy only affects future outages. Use setReconnectListener(...)
+     * to be notified about outages and attempts.
+     * @param reconnectPolicy the policy to use; null disables the automatic
+     *                        reconnection (default)
+     */
+    public void setReconnectPolicy(ReconnectPolicy reconnectPolicy)
+    {
+        this.reconnectPolicy = reconnectPolicy;
     }
 
 
     /**
-     * getter for the round trip time of the last Frame
-     * @return the round trip time to the device from the last frame sent until its answer
-     * in nanoseconds
+     * setter for the listener notified about the automatic reconnection
+     * @param reconnectListener the listener to notify; null if there is none
      */
-    public long getRtt()
+    public void setReconnectListener(ReconnectListener reconnectListener)
     {
-        return rtt;
+        this.reconnectListener = reconnectListener;
     }
 
 
-
     /**
-     * getter for the round trip time of the last Frame
-     * @return the round trip time to the device from the last frame sent until its answer
-     * in milliseconds
+     * function enabling or disabling the streaming mode of this device
+     * <br/>
+     * In streaming mode, send() writes frames without waiting for their
+     * Frame Acknowledgement, so frames are sent as fast as the link allows.
+     * Only every sync interval-th frame, or the first frame after the sync
+     * period passed, is a synchronizing frame which waits for the responses
+     * of all previous frames and its own, so dead devices are still detected
+     * and the amount of buffered data stays bounded.
+     * <br/>
+     * Frame errors of the other frames are not reported, as the following
+     * frames replace them; they are counted by getDiscardedFrameErrors().
+     * Use flush() to wait for all responses.
+     * <br/>
+     * Note: meant for animations where losing a single frame is harmless;
+     * sendBatch() always waits like a synchronizing frame
+     * @param streamingMode true, if only synchronizing frames should wait for
+     *                      their response, else false
      */
-    public long getRttMS()
+    public void setStreamingMode(boolean streamingMode)
     {
-        return rtt / 1000000;
+        this.streamingMode = streamingMode;
     }
 
-    public int getOffset()
+
+    /**
+     * function setting how many frames are sent in streaming mode per
+     * synchronizing frame
+     * @param syncInterval the number of frames; has to be > 0. 1 makes every
+     *                     frame a synchronizing frame (default: 30)
+     * @throws IllegalArgumentException the given interval is <= 0
+     */
+    public void setSyncInterval(int syncInterval)
     {
-        return frame.getHeader ().getOffset ();
+        if(syncInterval <= 0)
+        {
+            throw new IllegalArgumentException ( "The given sync interval of " + syncInterval + " frames is <= 0");
+        }
+        this.syncInterval = syncInterval;
     }
 
 
     /**
-     * function indicating if this device is fully connected and ready for data
-     * transmission
-     * @return true, if the device is fully connected, else false
+     * function setting the time after which the next frame sent in streaming
+     * mode is a synchronizing frame, independent of the sync interval
+     * @param syncPeriod the period in milliseconds; has to be >= 0. 0 only
+     *                   uses the sync interval (default: 500)
+     * @throws IllegalArgumentException the given period is negative
      */
-    public boolean isConnected()
+    public void setSyncPeriod(long syncPeriod)
     {
-        return connectionState == CONNECTION_STATE.CONNECTED;
+        if(syncPeriod < 0)
+        {
+            throw new IllegalArgumentException ( "The given sync period of " + syncPeriod + " ms is negative");
+        }
+        this.syncPeriod = TimeUnit.MILLISECONDS.toNanos (syncPeriod);
     }
 
 
     /**
-     * function returning the connection state of this device
-     * @return the connection state of this device; one of CONNECTION_STATE
+     * setter for the time in which the whole handshake has to be finished
+     * while connecting, from waiting for the connection request of the device
+     * to receiving its configuration acknowledgement
+     * @param handshakeTimeout the timeout in ms; has to be > 0 (default: 10000)
+     * @throws IllegalArgumentException the given timeout is <= 0
      */
-    public CONNECTION_STATE getConnectionState()
+    public void setHandshakeTimeout(int handshakeTimeout)
     {
-        return connectionState;
+        if(handshakeTimeout <= 0)
+        {
+            throw new IllegalArgumentException ( "The given handshake timeout of " + handshakeTimeout + " ms is <= 0");
+        }
+        this.handshakeTimeout = handshakeTimeout;
     }
 
+
     /**
-     * function returning the configuration of this device
-     * @return the device configuration or null if no configuration was received yet
+     * setter for the time in which the whole configuration has to be
+     * exchanged with the device while connecting, starting when the
+     * connection request was acknowledged
+     * <br/>
+     * Note: the configuration exchange never exceeds the handshake timeout;
+     * see setHandshakeTimeout()
+     * @param configurationTimeout the timeout in ms; has to be > 0 (default: 10000)
+     * @throws IllegalArgumentException the given timeout is <= 0
      */
-    public DeviceConfiguration getConfiguration()
+    public void setConfigurationTimeout(int configurationTimeout)
     {
-        return configuration;
+        if(configurationTimeout <= 0)
+        {
+            throw new IllegalArgumentException ( "The given configuration timeout of " + configurationTimeout + " ms is <= 0");
+        }
+        this.configurationTimeout = configurationTimeout;
     }
 
-//endregion
 
+    /**
+     * function setting the bounds of the frame timeout
+     * <br/>
+     * The frame timeout is the 99th percentile of the measured rtt multiplied
+     * by the frame timeout factor, limited by these bounds. Until enough
+     * frames were acknowledged, the upper bound is used. A fast LAN device is
+     * detected as dead after about the lower bound, while slow serial links
+     * are given as much time as their rtt requires.
+     * <br/>
+     * Note: use the same value for both bounds to disable the adaptation
+     * @param minFrameTimeout the lower bound in ms; has to be > 0 (default: 50)
+     * @param maxFrameTimeout the upper bound in ms; has to be >=
+     *                        minFrameTimeout (default: 10000)
+     * @throws IllegalArgumentException the given bounds are invalid
+     */
+    public void setFrameTimeoutBounds(int minFrameTimeout, int maxFrameTimeout)
+    {
+        if(minFrameTimeout <= 0 || maxFrameTimeout < minFrameTimeout)
+        {
+            throw new IllegalArgumentException ( "The given frame timeout bounds of " + minFrameTimeout + " ms and " + maxFrameTimeout + " ms are invalid");
+        }
+        this.minFrameTimeout = minFrameTimeout;
+        this.maxFrameTimeout = maxFrameTimeout;
+        updateFrameTimeout ();
+    }
 
 
-    //region setter
     /**
-     * function setting the subcommand for a subprogram which should be
-     * executed on the receiving device
-     * @param id the ID of the subprogram to execute; has to be within a range of 0-247
-     * @throws IllegalArgumentException the given ID is not within a range of 0-247
+     * setter for the factor applied to the 99th percentile of the measured
+     * rtt to get the frame timeout
+     * @param frameTimeoutFactor the factor; has to be >= 1 (default: 4)
+     * @throws IllegalArgumentException the given factor is < 1
      */
-    public void setSubcommand(int id)
+    public void setFrameTimeoutFactor(double frameTimeoutFactor)
     {
-        if(frame == null)
+        if(!(frameTimeoutFactor >= 1))
         {
-            //create a new Frame with an empty LED array and default headers
-            frame = new Frame ( );
+            throw new IllegalArgumentException ( "The given frame timeout factor of " + frameTimeoutFactor + " is < 1");
         }
-        //set the subcommand of the given ID
-        frame.setSubcommand (id);
+        this.frameTimeoutFactor = frameTimeoutFactor;
+        updateFrameTimeout ();
     }
 
 
-
     /**
-     * function setting the led values of this frame; automatically cuts the
-     * array to the size of the led strip if it is too large
-     * @param leds the led values to be set
+     * function setting the strategy used while waiting for incoming data
+     * like frame acknowledgements; see WaitStrategy for the tradeoffs between
+     * the available strategies
+     * @param waitStrategy the strategy to use; has to be non-null
+     * @throws NullPointerException the given strategy is null
      */
-    public void setLeds(LED[] leds)
+    public void setWaitStrategy(WaitStrategy waitStrategy)
     {
-        if(frame == null)
+        if(waitStrategy == null)
         {
-            //create a new frame if there is no frame
-            frame = new Frame ( );
+            throw new NullPointerException ( "the given WaitStrategy is null");
         }
-        frame.setLeds (leds);
+        this.waitStrategy = waitStrategy;
     }
 
 
-
     /**
-     * function setting the offset for the current frame
-     * @param offset the value to set the body offset to; has to be a positive
-     *              value; the offset + leds.length has to be smaller than the number
-     *              of leds connected to the device
-     *  @throws OutOfRangeException the offset value of the frame which
-     *  should be sent was invalid
+     * function setting the maximum number of frames which may be sent
+     * without waiting for their response
+     * <br/>
+     * A depth of 1 (default) waits for the response of every frame before
+     * send() returns. Higher values let send() return right after writing as
+     * long as fewer frames are in flight, so the frame rate is no longer
+     * limited by the rtt.
+     * <br/>
+     * Note: the slave device has to be able to buffer the given number of
+     * frames; use flush() to wait for all remaining responses
+     * @param depth the new pipeline depth; has to be > 0
+     * @throws IllegalArgumentException the given depth is <= 0
+     * @throws IllegalStateException there are still frames in flight; call
+     * flush() first
      */
-    public void setOffset(int offset)
+    public void setPipelineDepth(int depth)
     {
-        //create a new frame if there is no frame
-        if(frame == null)
+        if(depth <= 0)
         {
-            frame = new Frame ( );
+            throw new IllegalArgumentException ( "The given pipeline depth of " + depth + " is <= 0");
         }
-
-        frame.setOffset (offset);
+        inFlightFrames.resize (depth);
+        pipelineDepth = depth;
     }
     //endregion
 }
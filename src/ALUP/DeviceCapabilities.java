@@ -0,0 +1,198 @@
+package ALUP;
+
+
+/*
+Copyright 2020 Skyfighter64
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+
+/**
+ * class containing the optional capabilities a slave device announces
+ * inside the extra values of its configuration
+ * <br/>
+ * The capabilities are given as entries separated by ';', each consisting of
+ * a key and a value separated by '=', or of a key only for features which
+ * are supported, for example:
+ * <br/>
+ * "fps=60;rxbuf=2048;pipeline=4;ackless"
+ * <br/>
+ * Keys are not case sensitive and whitespace around keys and values is
+ * ignored. Entries which are unknown or have an invalid value are ignored,
+ * so the extra values may contain other data as well. Capabilities which
+ * are not announced fall back to the behaviour every device supports:
+ * waiting for the response of each frame.
+ */
+public class DeviceCapabilities
+{
+    //the key of the maximum number of frames per second the device can show
+    public static final String KEY_MAX_FRAME_RATE = "fps";
+
+    //the key of the size of the receive buffer of the device in bytes
+    public static final String KEY_RECEIVE_BUFFER_SIZE = "rxbuf";
+
+    //the key of the maximum number of frames the device can buffer before answering them
+    public static final String KEY_PIPELINE_DEPTH = "pipeline";
+
+    //the key of the feature that the device keeps up with frames sent
+    // without waiting for their responses
+    public static final String KEY_ACKLESS = "ackless";
+
+    //all entries of the extra values by their lower case key
+    private final Map<String, String> entries;
+
+    //the maximum frame rate of the device; 0 if unknown
+    private final int maxFrameRate;
+
+    //the size of the receive buffer of the device in bytes; 0 if unknown
+    private final int receiveBufferSize;
+
+    //the maximum number of frames in flight supported by the device
+    private final int pipelineDepth;
+
+    //true, if the device supports frames sent without waiting for responses
+    private final boolean ackless;
+
+
+    /**
+     * default constructor of this class, parsing the given extra values
+     * @param extraValues the extra values of a device configuration; may be
+     *                    null or empty if the device announces no capabilities
+     */
+    public DeviceCapabilities(String extraValues)
+    {
+        Map<String, String> parsed = new HashMap<> ( );
+        if(extraValues != null)
+        {
+            for(String entry : extraValues.split (";"))
+            {
+                int separator = entry.indexOf ('=');
+                String key = (separator < 0 ? entry : entry.substring (0, separator)).trim ().toLowerCase (Locale.ROOT);
+                String value = separator < 0 ? "" : entry.substring (separator + 1).trim ();
+                if(!key.isEmpty ())
+                {
+                    parsed.put (key, value);
+                }
+            }
+        }
+        this.entries = Collections.unmodifiableMap (parsed);
+
+        this.maxFrameRate = parsePositive (KEY_MAX_FRAME_RATE, 0);
+        this.receiveBufferSize = parsePositive (KEY_RECEIVE_BUFFER_SIZE, 0);
+        this.pipelineDepth = parsePositive (KEY_PIPELINE_DEPTH, 1);
+        this.ackless = parseFlag (KEY_ACKLESS);
+    }
+
+
+    /**
+     * function parsing the value of the given key as a number > 0
+     * @param key the key of the value
+     * @param defaultValue the value used if the key is missing or invalid
+     * @return the parsed value or the default value
+     */
+    private int parsePositive(String key, int defaultValue)
+    {
+        String value = entries.get (key);
+        if(value == null)
+        {
+            return defaultValue;
+        }
+        try
+        {
+            int number = Integer.parseInt (value);
+            return number > 0 ? number : defaultValue;
+        }
+        catch (NumberFormatException e)
+        {
+            //the value is not a number; ignore it
+            return defaultValue;
+        }
+    }
+
+
+    /**
+     * function parsing the value of the given key as a feature flag
+     * @param key the key of the feature
+     * @return true, if the key is given without a value or with the value
+     * "true", "yes" or "1", else false
+     */
+    private boolean parseFlag(String key)
+    {
+        String value = entries.get (key);
+        if(value == null)
+        {
+            return false;
+        }
+        value = value.toLowerCase (Locale.ROOT);
+        return value.isEmpty () || value.equals ("true") || value.equals ("yes") || value.equals ("1");
+    }
+
+
+    /**
+     * function returning the raw value of the given entry
+     * @param key the key of the entry; not case sensitive
+     * @return the trimmed value, an empty string for keys without a value or
+     * null if the key is not given
+     */
+    public String getValue(String key)
+    {
+        return entries.get (key.trim ().toLowerCase (Locale.ROOT));
+    }
+
+    /**
+     * function returning all entries of the extra values
+     * @return an unmodifiable map of all values by their lower case key
+     */
+    public Map<String, String> getEntries()
+    {
+        return entries;
+    }
+
+    public int getMaxFrameRate()
+    {
+        return maxFrameRate;
+    }
+
+    public int getReceiveBufferSize()
+    {
+        return receiveBufferSize;
+    }
+
+    public int getPipelineDepth()
+    {
+        return pipelineDepth;
+    }
+
+    public boolean isAckless()
+    {
+        return ackless;
+    }
+
+    @Override
+    public String toString ( )
+    {
+        return "DeviceCapabilities{" +
+                "maxFrameRate=" + maxFrameRate +
+                ", receiveBufferSize=" + receiveBufferSize +
+                ", pipelineDepth=" + pipelineDepth +
+                ", ackless=" + ackless +
+                '}';
+    }
+}
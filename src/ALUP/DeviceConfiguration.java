@@ -43,6 +43,9 @@ public class DeviceConfiguration
     //a string of extra values which can be used by any developer to configure his software
     private final String extraValues;
 
+    //the capabilities announced inside the extra values
+    private final DeviceCapabilities capabilities;
+
 
     public int getNumOfLeds ( )
     {
@@ -69,11 +72,16 @@ public class DeviceConfiguration
         return deviceName;
     }
 
-    private String getExtraValues ( )
+    public String getExtraValues ( )
     {
         return extraValues;
     }
 
+    public DeviceCapabilities getCapabilities ( )
+    {
+        return capabilities;
+    }
+
     /**
      * default constructor of this class
      * @param protocolVersion   the protocol version to initialize this class with; has to be a non-empty string
@@ -110,6 +118,7 @@ public class DeviceConfiguration
         this.dataPin = dataPin;
         this.clockPin = clockPin;
         this.extraValues = extraValues;
+        this.capabilities = new DeviceCapabilities (extraValues);
     }
 
     @Override
@@ -2,6 +2,8 @@ package ALUP;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.TimeoutException;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /*
@@ -57,4 +59,88 @@ class DeviceTest
         assertEquals (10, Device.clampOffset (10, 10));
         assertEquals (10, Device.clampOffset (11, 10));
     }
-}
\ No newline at end of file
+
+    @Test
+    void frameErrorInsideBatch ( ) throws Exception
+    {
+        ScriptedDevice device = new ScriptedDevice (10, false);
+        device.connect ();
+        device.setFrameTimeoutBounds (10, 100);
+
+        //the first frame of the batch fails, then the device stops answering
+        device.errorFrames.add (0);
+        device.answeredFrames = 3;
+        Frame frame = new Frame (Effects.Color (1, 2, 3, 10));
+        FrameErrorException error = assertThrows (FrameErrorException.class, ( ) -> device.sendBatch (frame, frame, frame));
+        assertEquals (0, error.getFrameNumber ());
+
+        //the responses of the other frames of the batch must not be taken
+        // for the response of the next frame
+        assertThrows (TimeoutException.class, ( ) -> device.send (Effects.Color (4, 5, 6, 10)));
+        assertEquals (4, device.frames.size ());
+    }
+
+    @Test
+    void frameErrorInsideDeltaFrame ( ) throws Exception
+    {
+        ScriptedDevice device = new ScriptedDevice (300, false);
+        device.connect ();
+        device.setDeltaMode (true);
+        device.setFrameTimeoutBounds (10, 100);
+        LED[] leds = Effects.Color (1, 1, 1, 300);
+        device.send (leds);
+
+        //two distant changes are sent as two frames; the first one fails,
+        // then the device stops answering
+        device.errorFrames.add (1);
+        device.answeredFrames = 3;
+        leds[3] = new LED (9, 9, 9);
+        leds[290] = new LED (9, 9, 9);
+        assertThrows (FrameErrorException.class, ( ) -> device.send (leds));
+        assertEquals (3, device.frames.size ());
+        assertEquals (3, device.frames.get (1)[1]);
+        assertEquals (290, device.frames.get (2)[1]);
+
+        //the response of the second region must not be taken for the
+        // response of the next frame
+        assertThrows (TimeoutException.class, ( ) -> device.send (leds));
+    }
+
+    @Test
+    void handshakeDeadline ( ) throws Exception
+    {
+        ScriptedDevice device = new ScriptedDevice (10, false);
+        device.handshakeDelay = 200;
+        device.setConfigurationTimeout (300);
+
+        //the connection request and the configuration arrive within their
+        // own timeouts, but not within the deadline of the whole handshake
+        device.setHandshakeTimeout (300);
+        assertThrows (TimeoutException.class, device::connect);
+        assertFalse (device.isConnected ());
+
+        device.setHandshakeTimeout (1000);
+        device.connect ();
+        assertTrue (device.isConnected ());
+    }
+
+    @Test
+    void chunkedBatch ( ) throws Exception
+    {
+        ScriptedDevice device = new ScriptedDevice (1000, false);
+        device.connect ();
+        device.setChunkSize (64);
+
+        Frame strip = new Frame (Effects.Color (1, 1, 1, 1000));
+        strip.setProtocolCommand (Constants.COMMAND_NONE);
+        Frame part = new Frame (Effects.Color (2, 2, 2, 100));
+        part.setProtocolCommand (Constants.COMMAND_NONE);
+        part.setOffset (950);
+        device.sendBatch (strip, part);
+
+        //every frame of the batch arrives completely and clamped
+        assertEquals (2, device.frames.size ());
+        assertArrayEquals (new int[]{3000, 0, Constants.COMMAND_NONE}, device.frames.get (0));
+        assertArrayEquals (new int[]{150, 950, Constants.COMMAND_NONE}, device.frames.get (1));
+    }
+}
@@ -19,6 +19,7 @@ Copyright 2020 Skyfighter64
 
 
 import java.util.Random;
+import java.util.concurrent.TimeUnit;
 
 
 /*
@@ -132,28 +133,46 @@ public class Effects
         device.simpleClear ();
     }
 
+    /**
+     * function showing the given color on the given LEDs for the given time
+     * and clearing the device afterwards
+     * <br/>
+     * Note: if the thread is interrupted, the flash is ended early by clearing
+     * the device and the interrupt flag of the thread is set again
+     * @param led the color of the flash
+     * @param delay the length of the flash in ms
+     * @param numOfLeds the number of LEDs used for the flash
+     * @param offset the offset of the LEDs used for the flash
+     * @param device the device on which the flash should be performed
+     */
     public static void Flash(LED led, long delay, int numOfLeds, int offset, Device device)
     {
+        //the end of the flash is measured from its start, so the time needed
+        // for sending is included
+        long end = System.nanoTime () + TimeUnit.MILLISECONDS.toNanos (Math.max (0, delay));
         device.simpleSend ( Color(led.getRed (),led.getGreen (),led.getBlue (), numOfLeds), offset);
 
-        //subtract the time needed for sending and make sure the delay is always positive
-        delay = Math.max(0, delay - device.getRttMS ());
-
-        try
+        //delay the end of the flash
+        boolean interrupted = !FrameScheduler.sleepUntil (end);
+        if(interrupted)
         {
-            //delay the end of the flash
-            Thread.sleep (delay);
+            //the thread was interrupted; end the flash early, clearing the
+            // interrupt flag so the response of the clear can be received
+            Thread.interrupted ();
         }
-        catch (InterruptedException e)
+        device.simpleClear ();
+        if(interrupted)
         {
-            //sleep was interrupted
-            e.printStackTrace ( );
+            //let the caller see the interrupt
+            Thread.currentThread ().interrupt ();
         }
-        device.simpleClear ();
     }
 
     /**
      * function creating a random lightning effect within the given boundaries
+     * <br/>
+     * Note: if the thread is interrupted, the lightning stops after clearing
+     * the LEDs and the interrupt flag of the thread stays set
      * @param minLeds the minimum amount of LEDs used for a flash. Has
      *               to be positive and smaller or equal to the number of LEDs
      *                connected to the device.
@@ -223,6 +242,10 @@ public class Effects
         minFlashLength = Math.max (0, minFlashLength);
         maxFlashLength = Math.max (minFlashLength, maxFlashLength);
 
+        //the time at which the next flash starts; using absolute times keeps
+        // the time needed for sending from delaying the following flashes
+        long flashStart = System.nanoTime ();
+
         //execute the flashes
         for(int i = 0; i < flashes; i++)
         {
@@ -234,18 +257,15 @@ public class Effects
             //check if this is the last flash
             if(i != flashes - 1)
             {
-                //subtract the time needed for sending from the delay and make sure it stays positive
-                delay = Math.max (0, delay - device.getRttMS ());
                 //this is not the last flash;
-                try
-                {
-                    //delay the next flash
-                    Thread.sleep (delay);
-                }
-                catch (InterruptedException e)
+                flashStart += TimeUnit.MILLISECONDS.toNanos (flashDelay + delay);
+                if(Thread.currentThread ().isInterrupted () || !FrameScheduler.sleepUntil (flashStart))
                 {
-                    //sleep was interrupted
-                    e.printStackTrace ( );
+                    //the thread was interrupted; stop the lightning instead
+                    // of sending the remaining flashes without any delay.
+                    // The LEDs were already cleared by the last flash and the
+                    // interrupt flag stays set for the caller
+                    return;
                 }
             }
 
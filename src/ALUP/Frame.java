@@ -144,6 +144,25 @@ public class Frame
         this.leds = new LED[]{};
     }
 
+    /**
+     * copy constructor creating a Frame with the same header values and
+     * copies of all LEDs of the given frame
+     * @param frame the frame to copy; has to be non-null
+     * @throws NullPointerException the given frame is null
+     */
+    public Frame(Frame frame)
+    {
+        Header other = frame.getHeader ();
+        this.header = new Header (other.getBodySize (), other.getOffset (), other.getCommandByte ());
+
+        LED[] otherLeds = frame.getLeds ();
+        this.leds = new LED[otherLeds.length];
+        for(int i = 0; i < otherLeds.length; i++)
+        {
+            this.leds[i] = new LED (otherLeds[i].getRed (), otherLeds[i].getGreen (), otherLeds[i].getBlue ());
+        }
+    }
+
 
     /**
      * function setting the offset of the led data of this frame
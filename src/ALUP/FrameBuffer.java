@@ -0,0 +1,201 @@
+package ALUP;
+
+
+/*
+Copyright 2020 Skyfighter64
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * class passing complete frames from a rendering thread to the thread
+ * sending them to a device, without locks
+ * <br/>
+ * The producer renders into the back buffer and publishes it with
+ * publish(), which atomically exchanges it with the published buffer.
+ * Device.send(FrameBuffer) always sends the most recently published buffer,
+ * so frames are never torn and the producer never waits for the device.
+ * Frames which get published while the device is busy replace each other;
+ * see getFramesReplaced().
+ * <br/>
+ * Internally, three LED arrays are used: the back buffer of the producer,
+ * the published buffer and the front buffer which is being sent. This way
+ * neither side ever waits for the other one.
+ * <br/>
+ * Note: there has to be exactly one producer thread calling
+ * getBackBuffer() and publish() and one thread sending the buffer
+ */
+public class FrameBuffer
+{
+    //the bit of the exchanged index marking a buffer which was not sent yet
+    private static final int PUBLISHED_FLAG = 4;
+
+    //the bits of the exchanged index holding the index of the buffer
+    private static final int INDEX_MASK = 3;
+
+    //the three buffers, each wrapped in its own frame
+    private final Frame[] frames = new Frame[3];
+
+    //the index of the published buffer, combined with PUBLISHED_FLAG if it
+    // was published since the last time the buffer was taken for sending
+    private final AtomicInteger published = new AtomicInteger (1);
+
+    //the index of the back buffer; only used by the producer
+    private int backIndex = 0;
+
+    //the index of the front buffer; only used by the sending thread
+    private int frontIndex = 2;
+
+    //true, if the front buffer holds a published frame; only used by the
+    // sending thread
+    private boolean hasFront;
+
+    //the number of published frames; only written by the producer
+    private volatile long framesPublished;
+
+    //the number of published frames taken for sending; only written by the
+    // sending thread
+    private volatile long framesTaken;
+
+
+    /**
+     * default constructor of this class, creating buffers with black LEDs
+     * @param numOfLeds the number of LEDs of each buffer; has to be > 0
+     * @throws IllegalArgumentException the given number of LEDs is <= 0
+     */
+    public FrameBuffer(int numOfLeds)
+    {
+        if(numOfLeds <= 0)
+        {
+            throw new IllegalArgumentException ( "The given number of LEDs of " + numOfLeds + " is <= 0");
+        }
+        for(int i = 0; i < frames.length; i++)
+        {
+            LED[] leds = new LED[numOfLeds];
+            for(int led = 0; led < numOfLeds; led++)
+            {
+                leds[led] = new LED ( );
+            }
+            frames[i] = new Frame (leds);
+        }
+    }
+
+
+    /**
+     * specialized constructor of this class, creating buffers with black LEDs
+     * which are sent at the given offset without changing any other LED
+     * @param numOfLeds the number of LEDs of each buffer; has to be > 0
+     * @param offset the offset of the buffers on the LED strip
+     * @throws IllegalArgumentException the given number of LEDs is <= 0
+     */
+    FrameBuffer(int numOfLeds, int offset)
+    {
+        this (numOfLeds);
+        for(Frame frame : frames)
+        {
+            frame.setOffset (offset);
+            frame.setProtocolCommand (Constants.COMMAND_NONE);
+        }
+    }
+
+
+    /**
+     * function returning the back buffer, which can be modified by the
+     * producer until it is published
+     * <br/>
+     * Note: the back buffer contains an older frame, so all LEDs have to be
+     * set before publishing it
+     * @return the LED array of the back buffer
+     */
+    public LED[] getBackBuffer()
+    {
+        return frames[backIndex].getLeds ();
+    }
+
+
+    /**
+     * function publishing the back buffer, so it is sent by the next call of
+     * Device.send(FrameBuffer), and making another buffer the back buffer
+     * <br/>
+     * Note: the back buffer must not be modified after publishing it; use
+     * getBackBuffer() to get the new back buffer
+     */
+    public void publish()
+    {
+        int previous = published.getAndSet (backIndex | PUBLISHED_FLAG);
+        backIndex = previous & INDEX_MASK;
+        framesPublished++;
+    }
+
+
+    /**
+     * function checking if a buffer was published since the last call of
+     * takeLatest()
+     * @return true, if there is a new frame to send, else false
+     */
+    boolean hasPublished()
+    {
+        return (published.get () & PUBLISHED_FLAG) != 0;
+    }
+
+
+    /**
+     * function taking the most recently published buffer for sending, if a
+     * buffer was published since the last call
+     * <br/>
+     * Note: has to be called by the sending thread only
+     * @return the frame of the front buffer; null if no buffer was published yet
+     */
+    Frame takeLatest()
+    {
+        if(hasPublished ())
+        {
+            int previous = published.getAndSet (frontIndex);
+            frontIndex = previous & INDEX_MASK;
+            hasFront = true;
+            framesTaken++;
+        }
+        return hasFront ? frames[frontIndex] : null;
+    }
+
+
+    /**
+     * function returning the number of LEDs of each buffer
+     * @return the length of the LED arrays
+     */
+    public int getNumOfLeds()
+    {
+        return frames[0].getLeds ().length;
+    }
+
+    public long getFramesPublished()
+    {
+        return framesPublished;
+    }
+
+    /**
+     * function returning the number of published frames which were replaced
+     * by a newer frame before they could be sent
+     * @return the number of frames which were never sent
+     */
+    public long getFramesReplaced()
+    {
+        //the newest published frame may still be waiting to be sent
+        long waiting = hasPublished () ? 1 : 0;
+        return Math.max (0, framesPublished - framesTaken - waiting);
+    }
+}
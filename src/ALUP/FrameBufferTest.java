@@ -0,0 +1,96 @@
+package ALUP;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/*
+Copyright 2020 Skyfighter64
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+
+class FrameBufferTest
+{
+
+    @Test
+    void publish ( )
+    {
+        FrameBuffer buffer = new FrameBuffer (2);
+
+        //nothing is sent before the first buffer was published
+        assertNull (buffer.takeLatest ());
+
+        LED[] first = buffer.getBackBuffer ();
+        first[0].setRGB (1, 1, 1);
+        buffer.publish ();
+        assertNotSame (first, buffer.getBackBuffer ());
+        assertSame (first, buffer.takeLatest ().getLeds ());
+
+        //the latest buffer is sent again if nothing new was published
+        assertSame (first, buffer.takeLatest ().getLeds ());
+
+        //frames published while the device is busy replace each other
+        buffer.getBackBuffer ()[0].setRGB (2, 2, 2);
+        buffer.publish ();
+        buffer.getBackBuffer ()[0].setRGB (3, 3, 3);
+        buffer.publish ();
+        assertEquals (3, buffer.takeLatest ().getLeds ()[0].getRed ());
+        assertEquals (3, buffer.getFramesPublished ());
+        assertEquals (1, buffer.getFramesReplaced ());
+    }
+
+    @Test
+    void concurrentPublish ( ) throws InterruptedException
+    {
+        FrameBuffer buffer = new FrameBuffer (64);
+        int frames = 200000;
+
+        //the producer fills every frame with its own number
+        Thread producer = new Thread (( ) ->
+        {
+            for(int i = 1; i <= frames; i++)
+            {
+                for(LED led : buffer.getBackBuffer ())
+                {
+                    led.setRGB (i & 255, (i >> 8) & 255, (i >> 16) & 255);
+                }
+                buffer.publish ();
+            }
+        });
+        producer.start ();
+
+        //the sending side must never see a torn or an older frame
+        int last = 0;
+        while(last < frames)
+        {
+            Frame frame = buffer.takeLatest ();
+            if(frame == null)
+            {
+                continue;
+            }
+            LED[] leds = frame.getLeds ();
+            int number = leds[0].getRed () | leds[0].getGreen () << 8 | leds[0].getBlue () << 16;
+            for(LED led : leds)
+            {
+                assertEquals (leds[0], led);
+            }
+            assertTrue (number >= last);
+            last = number;
+        }
+        producer.join ();
+    }
+}
@@ -0,0 +1,377 @@
+package ALUP;
+
+import java.util.Arrays;
+
+/*
+Copyright 2020 Skyfighter64
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+/**
+ * class encoding frames into a reusable wire buffer according to the
+ * ALUP v. 0.1 (internal) frame format
+ * <br/>
+ * The LED array of a frame is clamped to the LED strip of the device using
+ * index arithmetic only, so neither the frame nor its LED array get copied or
+ * modified. The wire buffer is sized for one frame covering the whole LED
+ * strip and only grows when several frames are encoded back to back as a
+ * batch, so encoding does not allocate any memory in the steady state.
+ * <br/>
+ * For very large LED strips, a frame can be encoded in chunks instead: the
+ * header is encoded first and the body is then encoded in parts of a fixed
+ * number of LEDs, each replacing the previous part inside the wire buffer.
+ * The wire buffer of a chunked encoder only holds one chunk.
+ */
+class FrameEncoder
+{
+    //LED array used for frames without LEDs
+    private static final LED[] NO_LEDS = new LED[0];
+
+    //frame array used if no further frames are encoded in chunks
+    private static final Frame[] NO_FRAMES = new Frame[0];
+
+    //the number of LEDs connected to the device
+    private final int numOfLeds;
+
+    //the buffer holding the encoded frames
+    private byte[] wireBuffer;
+
+    //the number of encoded bytes inside the wire buffer
+    private int size;
+
+    //the maximum number of LEDs encoded per chunk; 0 if frames are not chunked
+    private final int chunkLeds;
+
+    //the LED array of the frame which is encoded in chunks
+    private LED[] chunkSource = NO_LEDS;
+
+    //the index of the next LED to encode inside the chunk source
+    private int chunkPosition;
+
+    //the number of LEDs of the chunked frame which are not encoded yet
+    private int chunkRemaining;
+
+    //the frames encoded in chunks after the current one
+    private Frame[] chunkFrames = NO_FRAMES;
+
+    //the index of the next frame inside chunkFrames
+    private int nextChunkFrame;
+
+    //true, if the wire buffer contains a frame prepared by beginChunks()
+    private boolean chunked;
+
+    //true, if the next chunk is encoded behind the header of the frame
+    private boolean firstChunk;
+
+
+    /**
+     * default constructor of this class
+     * @param numOfLeds the number of LEDs connected to the device; has to be >= 0
+     */
+    FrameEncoder(int numOfLeds)
+    {
+        this.numOfLeds = numOfLeds;
+        this.wireBuffer = new byte[Header.SIZE + numOfLeds * 3];
+        this.size = 0;
+        this.chunkLeds = 0;
+    }
+
+
+    /**
+     * specialized constructor of this class creating an encoder for chunked
+     * frames, with a wire buffer holding one header and one chunk only
+     * @param numOfLeds the number of LEDs connected to the device; has to be >= 0
+     * @param chunkLeds the maximum number of LEDs encoded per chunk; has to be > 0
+     */
+    FrameEncoder(int numOfLeds, int chunkLeds)
+    {
+        this.numOfLeds = numOfLeds;
+        this.wireBuffer = new byte[Header.SIZE + Math.min (numOfLeds, chunkLeds) * 3];
+        this.size = 0;
+        this.chunkLeds = chunkLeds;
+    }
+
+
+    /**
+     * function encoding the given frame as the only frame inside the wire
+     * buffer; see append(Frame)
+     * @param frame the frame to encode; has to be non-null
+     * @return the number of bytes of the encoded frame inside the wire buffer
+     */
+    int encode(Frame frame)
+    {
+        reset ();
+        return append (frame);
+    }
+
+
+    /**
+     * function encoding the given frame behind the frames already inside the
+     * wire buffer, clamping its LEDs and offset to the LED strip of the device
+     * <br/>
+     * LEDs with a negative position or a position behind the end of the LED
+     * strip are cut off. A frame without LEDs is encoded with a black body
+     * for the whole LED strip.
+     * @param frame the frame to encode; has to be non-null
+     * @return the number of encoded bytes inside the wire buffer
+     */
+    int append(Frame frame)
+    {
+        LED[] leds = frame.getLeds ();
+        int offset = frame.getHeader ().getOffset ();
+
+        //a frame without LEDs covers the whole LED strip with black LEDs
+        int ledCount = (leds == null || leds.length == 0) ? numOfLeds : leds.length;
+
+        //calculate the part of the LED array which lies on the LED strip
+        int visibleStart = Device.clampOffset (offset, numOfLeds);
+        int visibleLength = visibleLength (offset, ledCount, numOfLeds);
+
+        //the index of the first visible LED inside the LED array
+        int firstLed = visibleStart - offset;
+
+        ensureCapacity (Header.SIZE + visibleLength * 3);
+        size = Header.serialize (wireBuffer, size, visibleLength * 3, visibleStart, frame.getHeader ().getCommandByte ());
+        size = LED.serializeArray (leds == null ? NO_LEDS : leds, firstLed, visibleLength, wireBuffer, size);
+        return size;
+    }
+
+
+    /**
+     * function encoding the header of the given frame as the only data inside
+     * the wire buffer and preparing its body to be encoded in chunks; see
+     * encodeChunk()
+     * <br/>
+     * The frame is clamped like in append(Frame). The LED array of the frame
+     * is read while encoding the chunks, so it must not be modified until all
+     * chunks were encoded.
+     * @param frame the frame to encode; has to be non-null
+     * @return the number of bytes of the whole encoded frame
+     */
+    int beginChunks(Frame frame)
+    {
+        reset ();
+        return beginChunkedFrame (frame);
+    }
+
+
+    /**
+     * function preparing the given frames to be encoded in chunks one after
+     * another, starting with the header of the first frame; see encodeChunk()
+     * <br/>
+     * The header of every following frame is encoded in front of its first
+     * chunk, so the wire buffer never holds more than one header and one
+     * chunk. The frames are clamped like in append(Frame) and must not be
+     * modified until all chunks were encoded.
+     * @param frames the frames to encode; has to contain at least one frame
+     *               and no null frames
+     */
+    void beginChunks(Frame[] frames)
+    {
+        beginChunks (frames[0]);
+        chunkFrames = frames;
+        nextChunkFrame = 1;
+    }
+
+
+    /**
+     * function encoding the header of the given frame at the end of the wire
+     * buffer and preparing its body to be encoded in chunks
+     * @param frame the frame to encode; has to be non-null
+     * @return the number of bytes of the whole encoded frame
+     */
+    private int beginChunkedFrame(Frame frame)
+    {
+        LED[] leds = frame.getLeds ();
+        int offset = frame.getHeader ().getOffset ();
+
+        //clamp the frame like append(Frame) does
+        int ledCount = (leds == null || leds.length == 0) ? numOfLeds : leds.length;
+        int visibleStart = Device.clampOffset (offset, numOfLeds);
+        int visibleLength = visibleLength (offset, ledCount, numOfLeds);
+
+        size = Header.serialize (wireBuffer, size, visibleLength * 3, visibleStart, frame.getHeader ().getCommandByte ());
+        chunkSource = leds == null ? NO_LEDS : leds;
+        chunkPosition = visibleStart - offset;
+        chunkRemaining = visibleLength;
+        chunked = true;
+        firstChunk = true;
+        return Header.SIZE + visibleLength * 3;
+    }
+
+
+    /**
+     * function encoding the next chunk of the frame prepared by
+     * beginChunks() into the wire buffer, replacing the previous chunk
+     * <br/>
+     * The first chunk of a frame is encoded behind its header. A frame
+     * without LEDs on the LED strip consists of its header only.
+     * @return the number of encoded bytes inside the wire buffer
+     */
+    int encodeChunk()
+    {
+        if(!firstChunk)
+        {
+            //the previous chunk was already written
+            size = 0;
+            if(chunkRemaining == 0 && nextChunkFrame < chunkFrames.length)
+            {
+                //the previous frame is complete; continue with the next one
+                beginChunkedFrame (chunkFrames[nextChunkFrame++]);
+            }
+        }
+        firstChunk = false;
+
+        int ledCount = Math.min (chunkRemaining, chunkLeds);
+        ensureCapacity (ledCount * 3);
+        size = LED.serializeArray (chunkSource, chunkPosition, ledCount, wireBuffer, size);
+        chunkPosition += ledCount;
+        chunkRemaining -= ledCount;
+        return size;
+    }
+
+
+    /**
+     * function checking if the frames prepared by beginChunks() have LEDs
+     * or headers which were not encoded yet
+     * @return true, if encodeChunk() has to be called again, else false
+     */
+    boolean hasRemainingChunks()
+    {
+        return chunkRemaining > 0 || nextChunkFrame < chunkFrames.length;
+    }
+
+
+    /**
+     * function encoding a frame with the given part of an already serialized
+     * image as body behind the frames already inside the wire buffer
+     * @param image the serialized LED colors of the whole LED strip; 3 bytes per LED
+     * @param firstLed the index of the first LED to send; used as body offset
+     * @param ledCount the number of LEDs to send
+     * @param commandByte the command byte of the frame
+     * @return the number of encoded bytes inside the wire buffer
+     */
+    int appendImage(byte[] image, int firstLed, int ledCount, short commandByte)
+    {
+        ensureCapacity (Header.SIZE + ledCount * 3);
+        size = Header.serialize (wireBuffer, size, ledCount * 3, firstLed, commandByte);
+        System.arraycopy (image, firstLed * 3, wireBuffer, size, ledCount * 3);
+        size += ledCount * 3;
+        return size;
+    }
+
+
+    /**
+     * function calculating how many LEDs of an LED array with the given
+     * offset and length lie on an LED strip with the given number of LEDs
+     * @param offset the offset of the LED array; can be negative
+     * @param ledCount the length of the LED array
+     * @param numOfLeds the number of LEDs of the LED strip
+     * @return the number of LEDs on the LED strip, starting at clampOffset(offset)
+     */
+    static int visibleLength(int offset, int ledCount, int numOfLeds)
+    {
+        //Note: long values are used so huge offsets can not overflow
+        int visibleStart = Device.clampOffset (offset, numOfLeds);
+        return (int) Math.max (0, Math.min (numOfLeds, (long) offset + ledCount) - visibleStart);
+    }
+
+
+    /**
+     * function encoding the given frame behind the frames already inside the
+     * wire buffer exactly as it is, without clamping it to the LED strip
+     * @param frame the frame to encode; has to be non-null
+     * @return the number of encoded bytes inside the wire buffer
+     */
+    int appendUnclamped(Frame frame)
+    {
+        LED[] leds = frame.getLeds ();
+        ensureCapacity (Header.SIZE + leds.length * 3);
+        size = frame.getHeader ().serialize (wireBuffer, size);
+        size = LED.serializeArray (leds, 0, leds.length, wireBuffer, size);
+        return size;
+    }
+
+
+    /**
+     * function removing all encoded frames from the wire buffer, including
+     * the remaining chunks of a chunked frame
+     */
+    void reset()
+    {
+        size = 0;
+        chunked = false;
+        chunkRemaining = 0;
+        chunkSource = NO_LEDS;
+        chunkFrames = NO_FRAMES;
+        nextChunkFrame = 0;
+    }
+
+
+    /**
+     * function growing the wire buffer so the given number of bytes can be
+     * appended
+     * @param bytes the number of bytes which will be appended
+     */
+    private void ensureCapacity(int bytes)
+    {
+        if(size + bytes > wireBuffer.length)
+        {
+            wireBuffer = Arrays.copyOf (wireBuffer, Math.max (size + bytes, wireBuffer.length * 2));
+        }
+    }
+
+
+    /**
+     * getter for the wire buffer
+     * @return the buffer containing the encoded frames, starting at index 0
+     */
+    byte[] getBuffer()
+    {
+        return wireBuffer;
+    }
+
+
+    /**
+     * getter for the number of encoded bytes
+     * @return the number of encoded bytes inside the wire buffer
+     */
+    int size()
+    {
+        return size;
+    }
+
+
+    /**
+     * function checking if the wire buffer contains a frame which has to be
+     * encoded in chunks; see beginChunks()
+     * @return true, if the frame is chunked, else false
+     */
+    boolean isChunked()
+    {
+        return chunked;
+    }
+
+
+    /**
+     * getter for the chunk size
+     * @return the maximum number of LEDs encoded per chunk; 0 if this
+     * encoder does not encode chunked frames
+     */
+    int getChunkLeds()
+    {
+        return chunkLeds;
+    }
+}
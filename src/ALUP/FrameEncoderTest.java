@@ -0,0 +1,158 @@
+package ALUP;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+Copyright 2020 Skyfighter64
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+class FrameEncoderTest
+{
+
+    @Test
+    void encode ( )
+    {
+        FrameEncoder encoder = new FrameEncoder (4);
+        Frame frame = new Frame (new LED[]{new LED ( 1,1,1), new LED ( 2,2,2), new LED ( 3,3,3)});
+        frame.setProtocolCommand (Constants.COMMAND_NONE);
+
+        //the frame fits onto the LED strip
+        assertEquals (Header.SIZE + 9, encoder.encode (frame));
+        assertArrayEquals (new byte[]{0, 0, 0, 9, 0, 0, 0, 0, 0, 1, 1, 1, 2, 2, 2, 3, 3, 3}, slice (encoder, 18));
+
+        //a negative offset cuts off the first LEDs
+        frame.setOffset (-1);
+        assertEquals (Header.SIZE + 6, encoder.encode (frame));
+        assertArrayEquals (new byte[]{0, 0, 0, 6, 0, 0, 0, 0, 0, 2, 2, 2, 3, 3, 3}, slice (encoder, 15));
+
+        //LEDs behind the end of the strip get cut off
+        frame.setOffset (3);
+        assertEquals (Header.SIZE + 3, encoder.encode (frame));
+        assertArrayEquals (new byte[]{0, 0, 0, 3, 0, 0, 0, 3, 0, 1, 1, 1}, slice (encoder, 12));
+
+        //offsets outside of the strip result in an empty body
+        frame.setOffset (Integer.MAX_VALUE);
+        assertEquals (Header.SIZE, encoder.encode (frame));
+        frame.setOffset (Integer.MIN_VALUE);
+        assertEquals (Header.SIZE, encoder.encode (frame));
+
+        //the frame itself is not modified
+        assertEquals (3, frame.getLeds ().length);
+        assertEquals (9, frame.getHeader ().getBodySize ());
+    }
+
+    @Test
+    void encodeEmptyFrame ( )
+    {
+        //a frame without LEDs covers the whole strip with black LEDs
+        FrameEncoder encoder = new FrameEncoder (2);
+        assertEquals (Header.SIZE + 6, encoder.encode (new Frame ( )));
+        assertArrayEquals (new byte[]{0, 0, 0, 6, 0, 0, 0, 0, Constants.COMMAND_CLEAR, 0, 0, 0, 0, 0, 0}, slice (encoder, 15));
+    }
+
+    @Test
+    void appendBatch ( )
+    {
+        FrameEncoder encoder = new FrameEncoder (2);
+        Frame first = new Frame (new LED[]{new LED ( 1,1,1)});
+        first.setOffset (1);
+        Frame second = new Frame (new LED[]{new LED ( 2,2,2), new LED ( 3,3,3)});
+
+        //the frames are encoded back to back, growing the buffer if needed
+        encoder.reset ();
+        assertEquals (Header.SIZE + 3, encoder.append (first));
+        assertEquals (2 * Header.SIZE + 9, encoder.append (second));
+        assertArrayEquals (new byte[]{0, 0, 0, 3, 0, 0, 0, 1, Constants.COMMAND_CLEAR, 1, 1, 1,
+                0, 0, 0, 6, 0, 0, 0, 0, Constants.COMMAND_CLEAR, 2, 2, 2, 3, 3, 3}, slice (encoder, 2 * Header.SIZE + 9));
+
+        //encoding a single frame replaces the batch
+        assertEquals (Header.SIZE + 3, encoder.encode (first));
+        assertEquals (Header.SIZE + 3, encoder.size ());
+    }
+
+    @Test
+    void encodeChunks ( )
+    {
+        FrameEncoder encoder = new FrameEncoder (5, 2);
+        Frame frame = new Frame (new LED[]{new LED ( 1,1,1), new LED ( 2,2,2), new LED ( 3,3,3), new LED ( 4,4,4)});
+        frame.setProtocolCommand (Constants.COMMAND_NONE);
+        frame.setOffset (-1);
+
+        //the header is encoded first; the body follows in chunks
+        assertEquals (Header.SIZE + 9, encoder.beginChunks (frame));
+        assertTrue (encoder.isChunked ());
+        assertEquals (Header.SIZE + 6, encoder.encodeChunk ());
+        assertArrayEquals (new byte[]{0, 0, 0, 9, 0, 0, 0, 0, 0, 2, 2, 2, 3, 3, 3}, slice (encoder, 15));
+        assertTrue (encoder.hasRemainingChunks ());
+
+        //every further chunk replaces the previous one
+        assertEquals (3, encoder.encodeChunk ());
+        assertArrayEquals (new byte[]{4, 4, 4}, slice (encoder, 3));
+        assertFalse (encoder.hasRemainingChunks ());
+
+        //the wire buffer only holds the header and one chunk
+        assertEquals (Header.SIZE + 6, encoder.getBuffer ().length);
+
+        //a frame outside of the strip consists of its header only
+        frame.setOffset (5);
+        assertEquals (Header.SIZE, encoder.beginChunks (frame));
+        assertEquals (Header.SIZE, encoder.encodeChunk ());
+        assertFalse (encoder.hasRemainingChunks ());
+
+        //resetting drops the chunked frame
+        encoder.beginChunks (new Frame ( ));
+        encoder.reset ();
+        assertFalse (encoder.isChunked ());
+        assertFalse (encoder.hasRemainingChunks ());
+    }
+
+    @Test
+    void encodeChunkedFrames ( )
+    {
+        FrameEncoder encoder = new FrameEncoder (5, 2);
+        Frame first = new Frame (new LED[]{new LED ( 1,1,1), new LED ( 2,2,2), new LED ( 3,3,3)});
+        first.setProtocolCommand (Constants.COMMAND_NONE);
+        Frame second = new Frame (new LED[]{new LED ( 4,4,4)});
+        second.setProtocolCommand (Constants.COMMAND_NONE);
+        second.setOffset (4);
+
+        //the first frame is encoded like a single chunked frame
+        encoder.beginChunks (new Frame[]{first, second});
+        assertEquals (Header.SIZE + 6, encoder.encodeChunk ());
+        assertArrayEquals (new byte[]{0, 0, 0, 9, 0, 0, 0, 0, 0, 1, 1, 1, 2, 2, 2}, slice (encoder, 15));
+        assertEquals (3, encoder.encodeChunk ());
+        assertArrayEquals (new byte[]{3, 3, 3}, slice (encoder, 3));
+        assertTrue (encoder.hasRemainingChunks ());
+
+        //the header of the next frame is encoded in front of its first chunk
+        assertEquals (Header.SIZE + 3, encoder.encodeChunk ());
+        assertArrayEquals (new byte[]{0, 0, 0, 3, 0, 0, 0, 4, 0, 4, 4, 4}, slice (encoder, 12));
+        assertFalse (encoder.hasRemainingChunks ());
+
+        //the wire buffer was not grown for the batch
+        assertEquals (Header.SIZE + 6, encoder.getBuffer ().length);
+    }
+
+    /**
+     * function returning the first bytes of the wire buffer of the given encoder
+     */
+    private static byte[] slice(FrameEncoder encoder, int length)
+    {
+        return java.util.Arrays.copyOf (encoder.getBuffer (), length);
+    }
+}
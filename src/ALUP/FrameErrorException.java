@@ -20,8 +20,33 @@ Copyright 2020 Skyfighter64
 
 public class FrameErrorException extends RuntimeException
 {
+    //the sequence number of the frame which caused this error; -1 if unknown
+    private final long frameNumber;
+
     public FrameErrorException(String errorMessage)
+    {
+        this(errorMessage, -1);
+    }
+
+    /**
+     * specialized constructor for errors which can be matched to a specific frame
+     * @param errorMessage the message of this exception
+     * @param frameNumber the sequence number of the frame which was rejected
+     *                    by the slave device
+     */
+    public FrameErrorException(String errorMessage, long frameNumber)
     {
         super("FrameErrorException: " + errorMessage);
+        this.frameNumber = frameNumber;
+    }
+
+    /**
+     * getter for the sequence number of the frame which caused this error
+     * @return the sequence number of the rejected frame as counted by
+     * Device.getFramesSent(), or -1 if unknown
+     */
+    public long getFrameNumber()
+    {
+        return frameNumber;
     }
 }
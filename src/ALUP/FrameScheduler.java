@@ -0,0 +1,282 @@
+package ALUP;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+Copyright 2020 Skyfighter64
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+/**
+ * class calling a render callback at a fixed target frame rate
+ * <br/>
+ * Every frame has an absolute deadline calculated from the start time and
+ * the frame period, so the time spent rendering and sending a frame does not
+ * delay the following frames and no drift accumulates. The thread waits for
+ * a deadline by parking until shortly before it and spinning for the
+ * remaining time, which is far more precise than Thread.sleep().
+ * <br/>
+ * A frame whose callback does not return before the deadline of the next
+ * frame counts as a missed deadline. If a callback takes longer than a
+ * whole frame period, the frames which could not be started in time are
+ * skipped instead of being rendered in a burst afterwards.
+ */
+public class FrameScheduler
+{
+    /**
+     * interface for rendering and sending a single frame
+     */
+    public interface RenderCallback
+    {
+        /**
+         * function rendering and sending the frame with the given number
+         * @param frameNumber the number of the frame since the scheduler was
+         *                    started; skipped frames are not passed
+         * @param deadline the time in nanoseconds (see System.nanoTime()) at
+         *                 which the frame should be sent and the next frame starts
+         * @return true, if the scheduler should continue, false to stop it
+         * @throws Exception rendering or sending failed; stops the scheduler
+         */
+        boolean render(long frameNumber, long deadline) throws Exception;
+    }
+
+    //the remaining time in nanoseconds below which the thread spins instead
+    // of parking by default
+    public static final long DEFAULT_SPIN_THRESHOLD = TimeUnit.MICROSECONDS.toNanos (100);
+
+    //the time between two frames in nanoseconds
+    private final long period;
+
+    //the remaining time in nanoseconds below which the thread spins instead of parking
+    private volatile long spinThreshold = DEFAULT_SPIN_THRESHOLD;
+
+    //true, while the scheduler is running
+    private volatile boolean running;
+
+    //the number of frames rendered since the scheduler was started
+    private volatile long framesRendered;
+
+    //the number of frames which did not finish before the next deadline
+    private volatile long missedDeadlines;
+
+    //the number of frames skipped because earlier frames took too long
+    private volatile long framesSkipped;
+
+    //the largest time in nanoseconds by which a frame missed its deadline
+    private volatile long maxLateness;
+
+
+    /**
+     * default constructor of this class
+     * @param targetFps the number of frames per second to render; has to be > 0
+     * @throws IllegalArgumentException the given frame rate is <= 0
+     */
+    public FrameScheduler(double targetFps)
+    {
+        if(!(targetFps > 0))
+        {
+            throw new IllegalArgumentException ( "The given frame rate of " + targetFps + " fps is <= 0");
+        }
+        this.period = Math.max (1, Math.round (TimeUnit.SECONDS.toNanos (1) / targetFps));
+    }
+
+
+    /**
+     * function calling the given callback once per frame period until it
+     * returns false, stop() is called or the thread is interrupted
+     * <br/>
+     * The first frame is rendered immediately. Note: this function blocks the
+     * calling thread while running; the statistics are reset on every call
+     * @param callback the callback rendering the frames; has to be non-null
+     * @throws Exception the exception thrown by the callback
+     * @throws IllegalStateException the scheduler is already running
+     */
+    public void run(RenderCallback callback) throws Exception
+    {
+        if(running)
+        {
+            throw new IllegalStateException ( "The frame scheduler is already running");
+        }
+        running = true;
+        framesRendered = 0;
+        missedDeadlines = 0;
+        framesSkipped = 0;
+        maxLateness = 0;
+
+        try
+        {
+            long start = System.nanoTime ();
+            long frameNumber = 0;
+            while(running)
+            {
+                //wait for the start of the frame
+                if(!sleepUntil (start + frameNumber * period, spinThreshold))
+                {
+                    //the thread was interrupted
+                    return;
+                }
+
+                long deadline = start + (frameNumber + 1) * period;
+                boolean proceed = callback.render (frameNumber, deadline);
+                framesRendered++;
+
+                long lateness = System.nanoTime () - deadline;
+                if(lateness > 0)
+                {
+                    missedDeadlines++;
+                    maxLateness = Math.max (maxLateness, lateness);
+
+                    //skip the frames which should already have been started
+                    long skipped = lateness / period;
+                    frameNumber += skipped;
+                    framesSkipped += skipped;
+                }
+                frameNumber++;
+
+                if(!proceed)
+                {
+                    return;
+                }
+            }
+        }
+        finally
+        {
+            running = false;
+        }
+    }
+
+
+    /**
+     * function stopping the scheduler after the current frame; may be called
+     * from any thread including the render callback
+     */
+    public void stop()
+    {
+        running = false;
+    }
+
+
+    /**
+     * function waiting until the given deadline using the default spin threshold
+     * @param deadline the time in nanoseconds (see System.nanoTime()) to wait for
+     * @return true, if the deadline was reached, false if the thread was
+     * interrupted; the interrupt flag is kept
+     */
+    public static boolean sleepUntil(long deadline)
+    {
+        return sleepUntil (deadline, DEFAULT_SPIN_THRESHOLD);
+    }
+
+
+    /**
+     * function waiting until the given deadline by parking the thread until
+     * shortly before it and spinning for the remaining time
+     * @param deadline the time in nanoseconds (see System.nanoTime()) to wait for
+     * @param spinThreshold the remaining time in nanoseconds below which the
+     *                      thread spins instead of parking
+     * @return true, if the deadline was reached, false if the thread was
+     * interrupted; the interrupt flag is kept
+     */
+    public static boolean sleepUntil(long deadline, long spinThreshold)
+    {
+        while(true)
+        {
+            if(Thread.currentThread ().isInterrupted ())
+            {
+                return false;
+            }
+
+            long remaining = deadline - System.nanoTime ();
+            if(remaining <= 0)
+            {
+                return true;
+            }
+            if(remaining > spinThreshold)
+            {
+                //park for the most part; waking up takes some time
+                LockSupport.parkNanos (remaining - spinThreshold);
+            }
+            else
+            {
+                Thread.onSpinWait ();
+            }
+        }
+    }
+
+
+    /**
+     * getter for the frame period
+     * @return the time between two frames in nanoseconds
+     */
+    public long getPeriod()
+    {
+        return period;
+    }
+
+    public long getSpinThreshold()
+    {
+        return spinThreshold;
+    }
+
+    public boolean isRunning()
+    {
+        return running;
+    }
+
+    public long getFramesRendered()
+    {
+        return framesRendered;
+    }
+
+    public long getMissedDeadlines()
+    {
+        return missedDeadlines;
+    }
+
+    public long getFramesSkipped()
+    {
+        return framesSkipped;
+    }
+
+    /**
+     * getter for the largest lateness of a frame
+     * @return the largest time in nanoseconds by which a frame missed its
+     * deadline since the scheduler was started
+     */
+    public long getMaxLateness()
+    {
+        return maxLateness;
+    }
+
+
+    /**
+     * setter for the spin threshold
+     * <br/>
+     * Higher values make the deadlines more precise on systems with a coarse
+     * timer, at the cost of more CPU time spent spinning
+     * @param spinThreshold the remaining time in nanoseconds below which the
+     *                      thread spins instead of parking; has to be >= 0
+     * @throws IllegalArgumentException the given threshold is negative
+     */
+    public void setSpinThreshold(long spinThreshold)
+    {
+        if(spinThreshold < 0)
+        {
+            throw new IllegalArgumentException ( "The given spin threshold of " + spinThreshold + " ns is negative");
+        }
+        this.spinThreshold = spinThreshold;
+    }
+}
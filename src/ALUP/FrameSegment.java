@@ -0,0 +1,64 @@
+package ALUP;
+
+
+/*
+Copyright 2020 Skyfighter64
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+/**
+ * class representing a range of LEDs of an LED strip which is rendered by
+ * its own producer thread
+ * <br/>
+ * A segment is a FrameBuffer covering its range only: the producer renders
+ * into the back buffer and publishes it without coordinating with other
+ * segments. Published segments are sent by Device.send(FrameSegments),
+ * which never changes the LEDs outside of the segments.
+ * <br/>
+ * Create instances using FrameSegments.createSegment(...)
+ */
+public class FrameSegment extends FrameBuffer
+{
+    //the index of the first LED of this segment on the LED strip
+    private final int start;
+
+
+    /**
+     * default constructor of this class
+     * @param start the index of the first LED of this segment; has to be >= 0
+     * @param length the number of LEDs of this segment; has to be > 0
+     * @throws IllegalArgumentException the given length is <= 0
+     */
+    FrameSegment(int start, int length)
+    {
+        super (length, start);
+        this.start = start;
+    }
+
+
+    public int getStart()
+    {
+        return start;
+    }
+
+    /**
+     * function returning the index behind the last LED of this segment
+     * @return the start of this segment plus its number of LEDs
+     */
+    public int getEnd()
+    {
+        return start + getNumOfLeds ();
+    }
+}
@@ -0,0 +1,236 @@
+package ALUP;
+
+
+/*
+Copyright 2020 Skyfighter64
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+
+/**
+ * class dividing an LED strip into disjoint segments, each rendered by its
+ * own producer thread
+ * <br/>
+ * Every producer is granted a segment it can render and publish without
+ * any coordination with the other producers; see FrameSegment. The sending
+ * thread calls Device.send(FrameSegments), which takes all segments
+ * published since the last call and sends them, merging adjacent segments
+ * into one frame. LEDs which are not part of a published segment are never
+ * changed.
+ * <br/>
+ * Note: creating and releasing segments is synchronized, while publishing
+ * and sending are lock-free. The segments have to be sent by one thread only.
+ */
+public class FrameSegments
+{
+    //the number of LEDs of the LED strip
+    private final int numOfLeds;
+
+    //all segments ordered by their start; replaced as a whole when a segment
+    // is created or released
+    private volatile FrameSegment[] segments = new FrameSegment[0];
+
+    //the segments used for the last merged frames; only used by the sending thread
+    private FrameSegment[] mergedSegments = segments;
+
+    //frames combining adjacent segments, by their range; only used by the
+    // sending thread
+    private final HashMap<Long, Frame> mergedFrames = new HashMap<> ( );
+
+    //the frames found by the last call of takePublished(); only used by the
+    // sending thread
+    private final ArrayList<Frame> publishedFrames = new ArrayList<> ( );
+
+
+    /**
+     * default constructor of this class
+     * @param numOfLeds the number of LEDs of the LED strip; has to be > 0
+     * @throws IllegalArgumentException the given number of LEDs is <= 0
+     */
+    public FrameSegments(int numOfLeds)
+    {
+        if(numOfLeds <= 0)
+        {
+            throw new IllegalArgumentException ( "The given number of LEDs of " + numOfLeds + " is <= 0");
+        }
+        this.numOfLeds = numOfLeds;
+    }
+
+
+    /**
+     * function granting a new segment of the LED strip to a producer
+     * @param start the index of the first LED of the segment; has to be >= 0
+     * @param length the number of LEDs of the segment; has to be > 0
+     * @return the new segment
+     * @throws IllegalArgumentException the given length is <= 0, the segment
+     * does not fit onto the LED strip or overlaps another segment
+     */
+    public synchronized FrameSegment createSegment(int start, int length)
+    {
+        if(length <= 0)
+        {
+            throw new IllegalArgumentException ( "The given length of " + length + " is <= 0");
+        }
+        if(start < 0 || (long) start + length > numOfLeds)
+        {
+            throw new IllegalArgumentException ( "The segment of LEDs " + start + " to " + ((long) start + length - 1) + " does not fit onto the LED strip of " + numOfLeds + " LEDs");
+        }
+
+        //find the position of the new segment, keeping the segments ordered
+        FrameSegment[] current = segments;
+        int index = 0;
+        while(index < current.length && current[index].getStart () < start)
+        {
+            index++;
+        }
+        if((index > 0 && current[index - 1].getEnd () > start) || (index < current.length && current[index].getStart () < start + length))
+        {
+            throw new IllegalArgumentException ( "The segment of LEDs " + start + " to " + (start + length - 1) + " overlaps another segment");
+        }
+
+        FrameSegment segment = new FrameSegment (start, length);
+        FrameSegment[] updated = new FrameSegment[current.length + 1];
+        System.arraycopy (current, 0, updated, 0, index);
+        updated[index] = segment;
+        System.arraycopy (current, index, updated, index + 1, current.length - index);
+        segments = updated;
+        return segment;
+    }
+
+
+    /**
+     * function removing the given segment, so its range can be granted
+     * again; the LEDs of the segment are not changed
+     * @param segment the segment to remove
+     * @return true, if the segment was removed, false if it is not part of
+     * these segments
+     */
+    public synchronized boolean releaseSegment(FrameSegment segment)
+    {
+        FrameSegment[] current = segments;
+        for(int i = 0; i < current.length; i++)
+        {
+            if(current[i] == segment)
+            {
+                FrameSegment[] updated = new FrameSegment[current.length - 1];
+                System.arraycopy (current, 0, updated, 0, i);
+                System.arraycopy (current, i + 1, updated, i, current.length - i - 1);
+                segments = updated;
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * function taking all segments published since the last call and
+     * creating the frames to send them, combining adjacent segments into one
+     * frame
+     * <br/>
+     * Note: has to be called by the sending thread only; the returned frames
+     * are valid until the next call
+     * @return the frames to send, ordered by their offset
+     */
+    ArrayList<Frame> takePublished()
+    {
+        FrameSegment[] current = segments;
+        if(current != mergedSegments)
+        {
+            //the segments changed; the merged frames may not fit anymore
+            mergedFrames.clear ();
+            mergedSegments = current;
+        }
+
+        publishedFrames.clear ();
+        int index = 0;
+        while(index < current.length)
+        {
+            if(!current[index].hasPublished ())
+            {
+                index++;
+                continue;
+            }
+
+            //extend the run as long as the next segment is adjacent and published
+            int first = index;
+            index++;
+            while(index < current.length && current[index].getStart () == current[index - 1].getEnd () && current[index].hasPublished ())
+            {
+                index++;
+            }
+            publishedFrames.add (merge (current, first, index));
+        }
+        return publishedFrames;
+    }
+
+
+    /**
+     * function taking the published buffers of the given adjacent segments
+     * and creating a frame containing them
+     * @param current the ordered segments
+     * @param first the index of the first segment to merge
+     * @param end the index behind the last segment to merge
+     * @return the frame covering all given segments
+     */
+    private Frame merge(FrameSegment[] current, int first, int end)
+    {
+        if(end - first == 1)
+        {
+            //a single segment is sent as it is
+            return current[first].takeLatest ();
+        }
+
+        int start = current[first].getStart ();
+        int length = current[end - 1].getEnd () - start;
+        Frame frame = mergedFrames.computeIfAbsent (((long) start << 32) | length, key ->
+        {
+            Frame merged = new Frame (new LED[length]);
+            merged.setOffset (start);
+            merged.setProtocolCommand (Constants.COMMAND_NONE);
+            return merged;
+        });
+
+        //only the references to the LEDs are copied; the front buffers do
+        // not change until they are taken again
+        LED[] leds = frame.getLeds ();
+        for(int i = first; i < end; i++)
+        {
+            LED[] segmentLeds = current[i].takeLatest ().getLeds ();
+            System.arraycopy (segmentLeds, 0, leds, current[i].getStart () - start, segmentLeds.length);
+        }
+        return frame;
+    }
+
+
+    /**
+     * function returning all segments ordered by their start
+     * @return a copy of the array of segments
+     */
+    public FrameSegment[] getSegments()
+    {
+        FrameSegment[] current = segments;
+        return Arrays.copyOf (current, current.length);
+    }
+
+    public int getNumOfLeds()
+    {
+        return numOfLeds;
+    }
+}
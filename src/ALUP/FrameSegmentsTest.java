@@ -0,0 +1,89 @@
+package ALUP;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/*
+Copyright 2020 Skyfighter64
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+
+class FrameSegmentsTest
+{
+
+    @Test
+    void createSegment ( )
+    {
+        FrameSegments segments = new FrameSegments (10);
+        FrameSegment second = segments.createSegment (5, 5);
+        FrameSegment first = segments.createSegment (0, 3);
+
+        //the segments are ordered by their start
+        assertArrayEquals (new Object[]{first, second}, segments.getSegments ());
+
+        //segments have to fit onto the strip without overlapping
+        assertThrows (IllegalArgumentException.class, ( ) -> segments.createSegment (2, 2));
+        assertThrows (IllegalArgumentException.class, ( ) -> segments.createSegment (4, 2));
+        assertThrows (IllegalArgumentException.class, ( ) -> segments.createSegment (8, 3));
+        assertThrows (IllegalArgumentException.class, ( ) -> segments.createSegment (3, 0));
+        assertThrows (IllegalArgumentException.class, ( ) -> segments.createSegment (-1, 1));
+
+        //a released range can be granted again
+        assertTrue (segments.releaseSegment (first));
+        assertFalse (segments.releaseSegment (first));
+        assertEquals (0, segments.createSegment (0, 5).getStart ());
+    }
+
+    @Test
+    void takePublished ( )
+    {
+        FrameSegments segments = new FrameSegments (10);
+        FrameSegment a = segments.createSegment (0, 2);
+        FrameSegment b = segments.createSegment (2, 3);
+        FrameSegment c = segments.createSegment (7, 3);
+
+        //nothing is sent before a segment was published
+        assertTrue (segments.takePublished ().isEmpty ());
+
+        //adjacent published segments are merged into one frame
+        a.getBackBuffer ()[0].setRGB (1, 1, 1);
+        a.publish ();
+        b.getBackBuffer ()[2].setRGB (2, 2, 2);
+        b.publish ();
+        c.publish ();
+        List<Frame> frames = segments.takePublished ();
+        assertEquals (2, frames.size ());
+        assertEquals (0, frames.get (0).getHeader ().getOffset ());
+        assertEquals (5, frames.get (0).getLeds ().length);
+        assertEquals (new LED (1, 1, 1), frames.get (0).getLeds ()[0]);
+        assertEquals (new LED (2, 2, 2), frames.get (0).getLeds ()[4]);
+        assertEquals (Constants.COMMAND_NONE, frames.get (0).getHeader ().getCommandByte ());
+        assertEquals (7, frames.get (1).getHeader ().getOffset ());
+        assertEquals (3, frames.get (1).getLeds ().length);
+
+        //only segments published since the last call are sent
+        assertTrue (segments.takePublished ().isEmpty ());
+        b.publish ();
+        frames = segments.takePublished ();
+        assertEquals (1, frames.size ());
+        assertEquals (2, frames.get (0).getHeader ().getOffset ());
+        assertEquals (3, frames.get (0).getLeds ().length);
+    }
+}
@@ -0,0 +1,367 @@
+package ALUP;
+
+
+/*
+Copyright 2020 Skyfighter64
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+
+/**
+ * class streaming LED arrays published by a Flow.Publisher to a device
+ * <br/>
+ * Every received LED array is sent as one frame using Device.send(LED[]) on
+ * the I/O thread of the device. Control frames queued using clearAsync(),
+ * sendSubcommandAsync() or disconnectAsync() are sent before the next
+ * buffered frame. Frames which can not be sent immediately are
+ * buffered; what happens when the buffer is full is decided by the
+ * OVERFLOW_POLICY:
+ * <br/>
+ * - BLOCK: only as many frames are requested from the publisher as fit into
+ *  the buffer and a new frame is requested for every frame sent, so no frame
+ *  is ever dropped. Publishers ignoring the demand get blocked in onNext().
+ * <br/>
+ * - DROP_OLDEST: frames are requested without limit; when the buffer is
+ *  full, the oldest buffered frame is dropped.
+ * <br/>
+ * - LATEST_WINS: frames are requested without limit and only the newest
+ *  frame is kept, so the device always shows the most recent frame
+ *  available when it is ready for the next one.
+ * <br/>
+ * Create instances using Device.asSubscriber(...)
+ */
+public class FrameSubscriber implements Flow.Subscriber<LED[]>
+{
+    /**
+     * enumeration object representing all policies for frames arriving
+     * while the buffer is full
+     */
+    public enum OVERFLOW_POLICY
+    {
+        BLOCK,
+        DROP_OLDEST,
+        LATEST_WINS
+    }
+
+    //the device the frames are sent to
+    private final Device device;
+
+    //the policy used when the buffer is full
+    private final OVERFLOW_POLICY policy;
+
+    //the maximum number of frames inside the buffer
+    private final int bufferSize;
+
+    //the frames waiting to be sent, oldest first; guarded by itself
+    private final ArrayDeque<LED[]> buffer;
+
+    //completes when all frames were sent after the publisher completed, or
+    // exceptionally when the publisher or the device failed
+    private final CompletableFuture<Void> completion = new CompletableFuture<> ( );
+
+    //the subscription to the publisher; null until onSubscribe() was called
+    private Flow.Subscription subscription;
+
+    //true, if a drain task is scheduled on the I/O thread of the device
+    private boolean draining;
+
+    //true, if the publisher will not publish any more frames
+    private boolean upstreamDone;
+
+    //the error signalled by the publisher; null if there was none
+    private Throwable upstreamError;
+
+    //the number of frames sent to the device
+    private long framesSent;
+
+    //the number of frames dropped because of the overflow policy
+    private long framesDropped;
+
+
+    /**
+     * default constructor of this class
+     * @param device the device to send the frames to; has to be non-null
+     * @param policy the policy used when the buffer is full; has to be non-null
+     * @param bufferSize the maximum number of frames waiting to be sent; has
+     *                   to be > 0. Note: LATEST_WINS always keeps one frame only
+     * @throws IllegalArgumentException the given buffer size is <= 0
+     */
+    FrameSubscriber(Device device, OVERFLOW_POLICY policy, int bufferSize)
+    {
+        if(bufferSize <= 0)
+        {
+            throw new IllegalArgumentException ( "The given buffer size of " + bufferSize + " is <= 0");
+        }
+        this.device = device;
+        this.policy = policy;
+        this.bufferSize = policy == OVERFLOW_POLICY.LATEST_WINS ? 1 : bufferSize;
+        this.buffer = new ArrayDeque<> (this.bufferSize);
+    }
+
+
+    @Override
+    public void onSubscribe (Flow.Subscription subscription)
+    {
+        synchronized (buffer)
+        {
+            if(this.subscription != null)
+            {
+                //only one subscription is allowed
+                subscription.cancel ();
+                return;
+            }
+            this.subscription = subscription;
+        }
+
+        if(policy == OVERFLOW_POLICY.BLOCK)
+        {
+            //only request what fits into the buffer; every sent frame requests a new one
+            subscription.request (bufferSize);
+        }
+        else
+        {
+            //the overflow policy discards stale frames, so the publisher never has to wait
+            subscription.request (Long.MAX_VALUE);
+        }
+    }
+
+
+    @Override
+    public void onNext (LED[] leds)
+    {
+        synchronized (buffer)
+        {
+            if(completion.isDone ())
+            {
+                //sending already failed; ignore the remaining frames
+                return;
+            }
+
+            if(buffer.size () >= bufferSize)
+            {
+                switch (policy)
+                {
+                    case BLOCK:
+                        //the publisher ignored the demand; wait for room in the buffer
+                        while(buffer.size () >= bufferSize && !completion.isDone ())
+                        {
+                            try
+                            {
+                                buffer.wait ();
+                            }
+                            catch (InterruptedException e)
+                            {
+                                //keep the interrupt and drop the frame
+                                Thread.currentThread ().interrupt ();
+                                framesDropped++;
+                                return;
+                            }
+                        }
+                        break;
+
+                    case DROP_OLDEST:
+                    case LATEST_WINS:
+                        //discard the stale frame
+                        buffer.pollFirst ();
+                        framesDropped++;
+                        break;
+                }
+            }
+
+            buffer.addLast (leds);
+            scheduleDrain ();
+        }
+    }
+
+
+    @Override
+    public void onError (Throwable throwable)
+    {
+        synchronized (buffer)
+        {
+            upstreamDone = true;
+            upstreamError = throwable;
+            scheduleDrain ();
+        }
+    }
+
+
+    @Override
+    public void onComplete ( )
+    {
+        synchronized (buffer)
+        {
+            upstreamDone = true;
+            scheduleDrain ();
+        }
+    }
+
+
+    /**
+     * function scheduling a drain task on the I/O thread of the device if
+     * none is scheduled yet
+     * <br/>
+     * Note: has to be called while holding the lock of the buffer
+     */
+    private void scheduleDrain()
+    {
+        if(draining)
+        {
+            //the running drain task will pick up the new state
+            return;
+        }
+        draining = true;
+        device.runAsync (this::drain);
+    }
+
+
+    /**
+     * function sending the oldest buffered frame and scheduling the next
+     * drain task if more frames are buffered
+     * <br/>
+     * Every frame is sent by its own task, so control frames queued on the
+     * I/O thread of the device in the meantime are sent before the next frame.
+     * Note: this function is executed on the I/O thread of the device
+     */
+    private void drain()
+    {
+        LED[] leds;
+        synchronized (buffer)
+        {
+            leds = buffer.pollFirst ();
+            if(leds == null)
+            {
+                draining = false;
+                if(upstreamDone)
+                {
+                    finish ();
+                }
+                return;
+            }
+            //wake up a blocked publisher
+            buffer.notifyAll ();
+        }
+
+        try
+        {
+            device.send (leds);
+        }
+        catch (Exception e)
+        {
+            //the device failed; stop the stream
+            synchronized (buffer)
+            {
+                framesDropped += buffer.size ();
+                buffer.clear ();
+                draining = false;
+                completion.completeExceptionally (e);
+                buffer.notifyAll ();
+            }
+            if(subscription != null)
+            {
+                subscription.cancel ();
+            }
+            return;
+        }
+
+        synchronized (buffer)
+        {
+            framesSent++;
+            //the next drain task sends the next frame or finishes the stream
+            device.runAsync (this::drain);
+        }
+
+        if(policy == OVERFLOW_POLICY.BLOCK && subscription != null)
+        {
+            //the device is ready for the next frame
+            subscription.request (1);
+        }
+    }
+
+
+    /**
+     * function completing this subscriber after the publisher finished and
+     * all buffered frames were sent
+     */
+    private void finish()
+    {
+        if(upstreamError != null)
+        {
+            completion.completeExceptionally (upstreamError);
+        }
+        else
+        {
+            completion.complete (null);
+        }
+    }
+
+
+    /**
+     * function cancelling the subscription and dropping all buffered frames
+     */
+    public void cancel()
+    {
+        Flow.Subscription currentSubscription;
+        synchronized (buffer)
+        {
+            framesDropped += buffer.size ();
+            buffer.clear ();
+            completion.complete (null);
+            buffer.notifyAll ();
+            currentSubscription = subscription;
+        }
+        if(currentSubscription != null)
+        {
+            currentSubscription.cancel ();
+        }
+    }
+
+
+    /**
+     * function returning a future which completes after the publisher
+     * completed and all buffered frames were sent
+     * @return a future completing normally after the last frame was sent, or
+     * exceptionally with the error of the publisher or the device
+     */
+    public CompletableFuture<Void> getCompletion()
+    {
+        return completion;
+    }
+
+    public OVERFLOW_POLICY getPolicy()
+    {
+        return policy;
+    }
+
+    public long getFramesSent()
+    {
+        synchronized (buffer)
+        {
+            return framesSent;
+        }
+    }
+
+    public long getFramesDropped()
+    {
+        synchronized (buffer)
+        {
+            return framesDropped;
+        }
+    }
+}
@@ -24,6 +24,9 @@ Copyright 2020 Skyfighter64
  */
 public class Header
 {
+    //the size of a serialized header in bytes
+    public static final int SIZE = 9;
+
     //the size of the frame body in bytes; has to be a positive value
     private int bodySize;
 
@@ -96,28 +99,75 @@ public class Header
      */
     public short[] serialize()
     {
-        short[] result = new short[9];
-        //convert and insert the body size into the bytes 0-3
-        byte[] bodySizeBytes = Convert.IntToBytes (getBodySize ());
-        byte[] bodyOffsetBytes = Convert.IntToBytes (getOffset ());
-
-        //convert the bytes into unsigned short values and insert them into the short array
-        result[0] = (short) Byte.toUnsignedInt ( bodySizeBytes[0]);
-        result[1] = (short) Byte.toUnsignedInt ( bodySizeBytes[1]);
-        result[2] = (short) Byte.toUnsignedInt ( bodySizeBytes[2]);
-        result[3] = (short) Byte.toUnsignedInt ( bodySizeBytes[3]);
-
-        result[4] = (short) Byte.toUnsignedInt ( bodyOffsetBytes[0]);
-        result[5] = (short) Byte.toUnsignedInt ( bodyOffsetBytes[1]);
-        result[6] = (short) Byte.toUnsignedInt ( bodyOffsetBytes[2]);
-        result[7] = (short) Byte.toUnsignedInt ( bodyOffsetBytes[3]);
-        //set the last byte to the command byte
-        result[8] = getCommandByte ();
+        byte[] bytes = new byte[SIZE];
+        serialize (bytes, 0);
 
+        //convert the bytes into unsigned short values
+        short[] result = new short[SIZE];
+        for(int i = 0; i < SIZE; i++)
+        {
+            result[i] = (short) Byte.toUnsignedInt (bytes[i]);
+        }
         return  result;
     }
 
 
+    /**
+     * function serializing this header into the given buffer according to
+     * the ALUP v. 0.1 (internal) header format
+     * @param buffer the buffer to write the header to; has to have room for
+     *               SIZE bytes starting at the given position
+     * @param position the index at which the header starts inside the buffer
+     * @return the index right after the written header
+     */
+    public int serialize(byte[] buffer, int position)
+    {
+        return serialize (buffer, position, getBodySize (), getOffset (), getCommandByte ());
+    }
+
+
+    /**
+     * function serializing a header with the given values into the given
+     * buffer according to the ALUP v. 0.1 (internal) header format without
+     * creating a Header instance
+     * @param buffer the buffer to write the header to; has to have room for
+     *               SIZE bytes starting at the given position
+     * @param position the index at which the header starts inside the buffer
+     * @param bodySize the size of the frame body in bytes
+     * @param bodyOffset the offset of the frame body as a number of LEDs
+     * @param commandByte the command byte; has to be within a range of 0-255
+     * @return the index right after the written header
+     */
+    static int serialize(byte[] buffer, int position, int bodySize, int bodyOffset, short commandByte)
+    {
+        //insert the body size into the bytes 0-3 and the offset into the
+        // bytes 4-7, both in big endian byte order
+        position = writeInt (buffer, position, bodySize);
+        position = writeInt (buffer, position, bodyOffset);
+        //set the last byte to the command byte
+        buffer[position++] = (byte) commandByte;
+        return position;
+    }
+
+
+    /**
+     * function writing the given integer value into the given buffer in big
+     * endian byte order
+     * @param buffer the buffer to write to
+     * @param position the index of the first byte to write
+     * @param value the value to write
+     * @return the index right after the written value
+     */
+    private static int writeInt(byte[] buffer, int position, int value)
+    {
+        buffer[position] = (byte) (value >>> 24);
+        buffer[position + 1] = (byte) (value >>> 16);
+        buffer[position + 2] = (byte) (value >>> 8);
+        buffer[position + 3] = (byte) value;
+        return position + 4;
+    }
+
+
     /**
      * setter for the body offset
      * @param bodyOffset the value to set the body offset to; has to be a positive value
@@ -0,0 +1,208 @@
+package ALUP;
+
+
+/*
+Copyright 2020 Skyfighter64
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+/**
+ * class keeping track of all frames which were sent to a device but not
+ * acknowledged yet, in the order in which they were sent
+ * <br/>
+ * As the slave device answers every frame with exactly one
+ * FRAME_ACKNOWLEDGEMENT_BYTE or FRAME_ERROR_BYTE in order, the oldest entry of
+ * this window always belongs to the next response received.
+ * <br/>
+ * Note: the entries are stored inside a fixed size ring buffer so adding and
+ * removing frames does not allocate any memory
+ */
+class InFlightWindow
+{
+    //the sequence numbers of the frames in flight
+    private long[] sequenceNumbers;
+
+    //the times in nanoseconds at which the frames in flight were sent
+    private long[] startTimes;
+
+    //the index of the oldest frame in flight inside the ring buffer
+    private int head;
+
+    //the number of frames currently in flight
+    private int size;
+
+
+    /**
+     * default constructor of this class
+     * @param capacity the maximum number of frames in flight; has to be > 0
+     * @throws IllegalArgumentException the given capacity is <= 0
+     */
+    InFlightWindow(int capacity)
+    {
+        if(capacity <= 0)
+        {
+            throw new IllegalArgumentException ( "The given capacity of " + capacity + " is <= 0");
+        }
+        sequenceNumbers = new long[capacity];
+        startTimes = new long[capacity];
+        head = 0;
+        size = 0;
+    }
+
+
+    /**
+     * function adding a frame to the end of this window
+     * @param sequenceNumber the sequence number of the sent frame
+     * @param startTime the time in nanoseconds at which the frame was sent
+     * @throws IllegalStateException the window is already full
+     */
+    void add(long sequenceNumber, long startTime)
+    {
+        if(isFull ())
+        {
+            throw new IllegalStateException ( "The in-flight window is full");
+        }
+
+        int index = (head + size) % capacity ();
+        sequenceNumbers[index] = sequenceNumber;
+        startTimes[index] = startTime;
+        size++;
+    }
+
+
+    /**
+     * function removing the oldest frame from this window
+     * @throws IllegalStateException the window is empty
+     */
+    void removeOldest()
+    {
+        if(isEmpty ())
+        {
+            throw new IllegalStateException ( "The in-flight window is empty");
+        }
+        head = (head + 1) % capacity ();
+        size--;
+    }
+
+
+    /**
+     * function removing all frames from this window
+     */
+    void clear()
+    {
+        head = 0;
+        size = 0;
+    }
+
+
+    /**
+     * function changing the capacity of this window
+     * <br/>
+     * Note: this is only possible while no frames are in flight
+     * @param capacity the new maximum number of frames in flight; has to be > 0
+     * @throws IllegalArgumentException the given capacity is <= 0
+     * @throws IllegalStateException there are still frames in flight
+     */
+    void resize(int capacity)
+    {
+        if(capacity <= 0)
+        {
+            throw new IllegalArgumentException ( "The given capacity of " + capacity + " is <= 0");
+        }
+        if(!isEmpty ())
+        {
+            throw new IllegalStateException ( "The in-flight window can not be resized while frames are in flight");
+        }
+        sequenceNumbers = new long[capacity];
+        startTimes = new long[capacity];
+        clear ();
+    }
+
+
+    /**
+     * function enlarging this window so it can hold at least the given
+     * number of frames, keeping the frames in flight
+     * @param capacity the minimum number of frames in flight
+     */
+    void ensureCapacity(int capacity)
+    {
+        if(capacity <= capacity ())
+        {
+            return;
+        }
+        long[] grownNumbers = new long[capacity];
+        long[] grownTimes = new long[capacity];
+        for(int i = 0; i < size; i++)
+        {
+            int index = (head + i) % capacity ();
+            grownNumbers[i] = sequenceNumbers[index];
+            grownTimes[i] = startTimes[index];
+        }
+        sequenceNumbers = grownNumbers;
+        startTimes = grownTimes;
+        head = 0;
+    }
+
+
+    /**
+     * getter for the sequence number of the oldest frame in flight
+     * @return the sequence number of the oldest frame
+     * @throws IllegalStateException the window is empty
+     */
+    long getOldestSequenceNumber()
+    {
+        if(isEmpty ())
+        {
+            throw new IllegalStateException ( "The in-flight window is empty");
+        }
+        return sequenceNumbers[head];
+    }
+
+
+    /**
+     * getter for the send time of the oldest frame in flight
+     * @return the time in nanoseconds at which the oldest frame was sent
+     * @throws IllegalStateException the window is empty
+     */
+    long getOldestStartTime()
+    {
+        if(isEmpty ())
+        {
+            throw new IllegalStateException ( "The in-flight window is empty");
+        }
+        return startTimes[head];
+    }
+
+
+    int size()
+    {
+        return size;
+    }
+
+    int capacity()
+    {
+        return startTimes.length;
+    }
+
+    boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    boolean isFull()
+    {
+        return size == capacity ();
+    }
+}
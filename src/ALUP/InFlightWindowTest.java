@@ -0,0 +1,98 @@
+package ALUP;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+Copyright 2020 Skyfighter64
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+class InFlightWindowTest
+{
+
+    @Test
+    void addAndRemove ( )
+    {
+        InFlightWindow window = new InFlightWindow (3);
+        assertTrue (window.isEmpty ());
+
+        window.add (0, 100);
+        window.add (1, 200);
+        window.add (2, 300);
+        assertTrue (window.isFull ());
+        assertThrows (IllegalStateException.class, () -> window.add (3, 400));
+
+        //frames have to be removed in the order they were added
+        assertEquals (0, window.getOldestSequenceNumber ());
+        assertEquals (100, window.getOldestStartTime ());
+        window.removeOldest ();
+
+        //wrap around the end of the ring buffer
+        window.add (3, 400);
+        assertEquals (1, window.getOldestSequenceNumber ());
+        window.removeOldest ();
+        assertEquals (2, window.getOldestSequenceNumber ());
+        window.removeOldest ();
+        assertEquals (3, window.getOldestSequenceNumber ());
+        assertEquals (400, window.getOldestStartTime ());
+        window.removeOldest ();
+
+        assertTrue (window.isEmpty ());
+        assertThrows (IllegalStateException.class, window::removeOldest);
+        assertThrows (IllegalStateException.class, window::getOldestSequenceNumber);
+    }
+
+    @Test
+    void resize ( )
+    {
+        assertThrows (IllegalArgumentException.class, () -> new InFlightWindow (0));
+
+        InFlightWindow window = new InFlightWindow (1);
+        window.add (0, 0);
+        assertThrows (IllegalStateException.class, () -> window.resize (4));
+
+        window.removeOldest ();
+        window.resize (4);
+        assertEquals (4, window.capacity ());
+        assertThrows (IllegalArgumentException.class, () -> window.resize (-1));
+    }
+
+    @Test
+    void ensureCapacity ( )
+    {
+        InFlightWindow window = new InFlightWindow (2);
+        window.add (0, 100);
+        window.add (1, 200);
+        window.removeOldest ();
+        window.add (2, 300);
+
+        //the frames in flight keep their order when the window grows
+        window.ensureCapacity (4);
+        assertEquals (4, window.capacity ());
+        window.add (3, 400);
+        assertEquals (1, window.getOldestSequenceNumber ());
+        window.removeOldest ();
+        assertEquals (2, window.getOldestSequenceNumber ());
+        assertEquals (300, window.getOldestStartTime ());
+        window.removeOldest ();
+        assertEquals (3, window.getOldestSequenceNumber ());
+
+        //a window is never shrunk
+        window.ensureCapacity (1);
+        assertEquals (4, window.capacity ());
+    }
+}
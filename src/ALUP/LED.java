@@ -1,8 +1,5 @@
 package ALUP;
 
-import org.apache.commons.lang3.ArrayUtils;
-
-import java.util.ArrayList;
 import java.util.Objects;
 
 
@@ -268,26 +265,55 @@ public class LED
     public static short[] serializeArray(LED[] leds)
     {
         //create an array with a short value for each RGB value
-        ArrayList<Short> unsignedBytes = new ArrayList<> ( );
+        short[] unsignedBytes = new short[leds.length * 3];
 
         for(int i = 0; i < leds.length; i++)
         {
-            //check if the current LED is null
-            if(leds[i] == null)
+            //null LEDs are serialized as black
+            if(leds[i] != null)
             {
-                //initialize it with 0 values
-                leds[i] = new LED ( 0,0,0);
+                unsignedBytes[i * 3] = leds[i].red;
+                unsignedBytes[i * 3 + 1] = leds[i].green;
+                unsignedBytes[i * 3 + 2] = leds[i].blue;
             }
-
-            short[] currentLed = leds[i].toUnsignedByte ();
-            unsignedBytes.add (currentLed[0]);
-            unsignedBytes.add (currentLed[1]);
-            unsignedBytes.add (currentLed[2]);
         }
+        return unsignedBytes;
+    }
+
 
-        //convert the arrayList to a short array and return it
-        Short[] result = new Short[unsignedBytes.size ()];
-        unsignedBytes.toArray ( result);
-        return  ArrayUtils.toPrimitive ( result);
+    /**
+     * function serializing the given part of the given LED array into the
+     * given buffer according to the ALUP v. 0.1 (internal) Frame body format
+     * <br/>
+     * Note: LEDs which are null or outside of the given array are serialized
+     * as black, so the body always has a size of length * 3 bytes
+     * @param leds the led array to serialize; has to be non-null
+     * @param start the index of the first LED to serialize
+     * @param length the number of LEDs to serialize
+     * @param buffer the buffer to write to; has to have room for length * 3
+     *               bytes starting at the given position
+     * @param position the index of the first byte to write inside the buffer
+     * @return the index right after the written bytes
+     */
+    public static int serializeArray(LED[] leds, int start, int length, byte[] buffer, int position)
+    {
+        for(int i = start; i < start + length; i++)
+        {
+            if(i >= 0 && i < leds.length && leds[i] != null)
+            {
+                buffer[position] = (byte) leds[i].red;
+                buffer[position + 1] = (byte) leds[i].green;
+                buffer[position + 2] = (byte) leds[i].blue;
+            }
+            else
+            {
+                //missing LEDs are black
+                buffer[position] = 0;
+                buffer[position + 1] = 0;
+                buffer[position + 2] = 0;
+            }
+            position += 3;
+        }
+        return position;
     }
 }
@@ -0,0 +1,76 @@
+package ALUP;
+
+
+/*
+Copyright 2020 Skyfighter64
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * wait strategy parking the thread with an exponentially growing backoff
+ * <br/>
+ * The first checks follow each other closely, so fast responses are
+ * detected quickly. Longer waits park up to the maximum park time between
+ * checks, which keeps the CPU usage low even with many waiting devices, but
+ * delays the detection of a response by up to the maximum park time.
+ */
+public class ParkingWaitStrategy implements WaitStrategy
+{
+    //the time in nanoseconds parked after the first unsuccessful check
+    private final long minParkTime;
+
+    //the maximum time in nanoseconds parked between two checks
+    private final long maxParkTime;
+
+    /**
+     * default constructor parking between 1 us and 1 ms
+     */
+    public ParkingWaitStrategy()
+    {
+        this(TimeUnit.MICROSECONDS.toNanos (1), TimeUnit.MILLISECONDS.toNanos (1));
+    }
+
+    /**
+     * specialized constructor
+     * @param minParkTime the time in nanoseconds parked after the first
+     *                    unsuccessful check; has to be > 0
+     * @param maxParkTime the maximum time in nanoseconds parked between two
+     *                    checks; has to be >= minParkTime
+     * @throws IllegalArgumentException the given park times are invalid
+     */
+    public ParkingWaitStrategy(long minParkTime, long maxParkTime)
+    {
+        if(minParkTime <= 0 || maxParkTime < minParkTime)
+        {
+            throw new IllegalArgumentException ( "The given park times of " + minParkTime + " ns and " + maxParkTime + " ns are invalid");
+        }
+        this.minParkTime = minParkTime;
+        this.maxParkTime = maxParkTime;
+    }
+
+    @Override
+    public void idle (int iteration, long remaining)
+    {
+        //double the park time with each iteration until the maximum is reached
+        //Note: the shift is limited so it can not overflow
+        long parkTime = iteration < Long.numberOfLeadingZeros (minParkTime) - 1 ? minParkTime << iteration : maxParkTime;
+        parkTime = Math.min (parkTime, maxParkTime);
+        LockSupport.parkNanos (Math.min (parkTime, remaining));
+    }
+}
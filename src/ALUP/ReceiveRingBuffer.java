@@ -0,0 +1,164 @@
+package ALUP;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+
+/*
+Copyright 2020 Skyfighter64
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+/**
+ * class buffering the bytes received by a listener thread until the thread
+ * using the device reads them
+ * <br/>
+ * Writing the received bytes wakes up a thread waiting inside read(), so
+ * responses are processed as soon as they arrived. The bytes are stored
+ * inside a ring buffer which grows when it is full; received bytes are
+ * never dropped.
+ */
+class ReceiveRingBuffer
+{
+    //the buffered bytes; the oldest byte is at index head
+    private byte[] buffer;
+
+    //the index of the oldest buffered byte
+    private int head;
+
+    //the number of buffered bytes
+    private int size;
+
+
+    /**
+     * default constructor of this class
+     * @param capacity the initial number of bytes which can be buffered; has
+     *                 to be > 0
+     * @throws IllegalArgumentException the given capacity is <= 0
+     */
+    ReceiveRingBuffer(int capacity)
+    {
+        if(capacity <= 0)
+        {
+            throw new IllegalArgumentException ( "The given capacity of " + capacity + " is <= 0");
+        }
+        buffer = new byte[capacity];
+    }
+
+
+    /**
+     * function appending the given bytes and waking up the waiting reader
+     * @param data the array containing the received bytes
+     * @param offset the index of the first received byte
+     * @param length the number of received bytes
+     */
+    synchronized void write(byte[] data, int offset, int length)
+    {
+        if(size + length > buffer.length)
+        {
+            grow (size + length);
+        }
+
+        //copy the bytes in up to two parts around the end of the ring
+        int tail = (head + size) % buffer.length;
+        int firstPart = Math.min (length, buffer.length - tail);
+        System.arraycopy (data, offset, buffer, tail, firstPart);
+        System.arraycopy (data, offset + firstPart, buffer, 0, length - firstPart);
+        size += length;
+
+        notifyAll ();
+    }
+
+
+    /**
+     * function taking up to the given number of buffered bytes, waiting for
+     * bytes to arrive if there are none
+     * @param data the array to store the bytes in
+     * @param offset the index in data of the first byte taken
+     * @param maxLength the maximum number of bytes to take
+     * @param timeOut the maximum time to wait in milliseconds; if <= 0, only
+     *                already buffered bytes are taken
+     * @return the number of bytes taken; 0 if no bytes arrived within the timeout
+     * @throws InterruptedIOException the thread was interrupted while waiting
+     */
+    synchronized int read(byte[] data, int offset, int maxLength, int timeOut) throws InterruptedIOException
+    {
+        long deadline = System.nanoTime () + TimeUnit.MILLISECONDS.toNanos (timeOut);
+        while(size == 0)
+        {
+            long remaining = deadline - System.nanoTime ();
+            if(remaining <= 0)
+            {
+                return 0;
+            }
+            try
+            {
+                TimeUnit.NANOSECONDS.timedWait (this, remaining);
+            }
+            catch (InterruptedException e)
+            {
+                //keep the interrupt so the caller can stop as well
+                Thread.currentThread ().interrupt ();
+                throw new InterruptedIOException ( "Interrupted while waiting for data");
+            }
+        }
+
+        int length = Math.min (size, maxLength);
+        int firstPart = Math.min (length, buffer.length - head);
+        System.arraycopy (buffer, head, data, offset, firstPart);
+        System.arraycopy (buffer, 0, data, offset + firstPart, length - firstPart);
+        head = (head + length) % buffer.length;
+        size -= length;
+        return length;
+    }
+
+
+    /**
+     * function enlarging the ring buffer so it holds at least the given
+     * number of bytes, keeping the buffered bytes
+     * @param capacity the minimum number of bytes the buffer has to hold
+     */
+    private void grow(int capacity)
+    {
+        byte[] grown = new byte[Math.max (capacity, buffer.length * 2)];
+        int firstPart = Math.min (size, buffer.length - head);
+        System.arraycopy (buffer, head, grown, 0, firstPart);
+        System.arraycopy (buffer, 0, grown, firstPart, size - firstPart);
+        buffer = grown;
+        head = 0;
+    }
+
+
+    /**
+     * function discarding all buffered bytes, for example after the
+     * connection was closed
+     */
+    synchronized void clear()
+    {
+        head = 0;
+        size = 0;
+    }
+
+
+    synchronized int available()
+    {
+        return size;
+    }
+
+    synchronized int capacity()
+    {
+        return buffer.length;
+    }
+}
@@ -0,0 +1,83 @@
+package ALUP;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+Copyright 2020 Skyfighter64
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+class ReceiveRingBufferTest
+{
+
+    @Test
+    void writeAndRead ( ) throws Exception
+    {
+        ReceiveRingBuffer ring = new ReceiveRingBuffer (4);
+        byte[] data = new byte[3];
+        assertEquals (0, ring.read (data, 0, 3, 0));
+
+        //the bytes wrap around the end of the ring
+        ring.write (new byte[]{1, 2, 3}, 0, 3);
+        assertEquals (2, ring.read (new byte[2], 0, 2, 0));
+        ring.write (new byte[]{9, 4, 5, 9}, 1, 2);
+        assertEquals (3, ring.read (data, 0, 3, 0));
+        assertArrayEquals (new byte[]{3, 4, 5}, data);
+        assertEquals (0, ring.available ());
+
+        //the ring grows instead of dropping bytes
+        ring.write (new byte[]{1, 2, 3, 4, 5, 6}, 0, 6);
+        assertEquals (8, ring.capacity ());
+        assertEquals (6, ring.available ());
+        assertEquals (2, ring.read (data, 1, 2, 0));
+        assertArrayEquals (new byte[]{3, 1, 2}, data);
+
+        ring.clear ();
+        assertEquals (0, ring.available ());
+        assertThrows (IllegalArgumentException.class, ( ) -> new ReceiveRingBuffer (0));
+    }
+
+    @Test
+    void wakeUpReader ( ) throws Exception
+    {
+        ReceiveRingBuffer ring = new ReceiveRingBuffer (16);
+        Thread writer = new Thread (( ) ->
+        {
+            try
+            {
+                Thread.sleep (50);
+            }
+            catch (InterruptedException e)
+            {
+                return;
+            }
+            ring.write (new byte[]{7}, 0, 1);
+        });
+        writer.start ();
+
+        //the reader is woken up by the write, long before the timeout
+        byte[] data = new byte[1];
+        long start = System.nanoTime ();
+        assertEquals (1, ring.read (data, 0, 1, 5000));
+        assertTrue (System.nanoTime () - start < 4000000000L);
+        assertEquals (7, data[0]);
+        writer.join ();
+
+        //nothing arrives within the timeout
+        assertEquals (0, ring.read (data, 0, 1, 20));
+    }
+}
@@ -0,0 +1,77 @@
+package ALUP;
+
+
+/*
+Copyright 2020 Skyfighter64
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+/**
+ * interface receiving the events of the automatic reconnection of a device
+ * <br/>
+ * All functions are called on the thread which detected the event: the
+ * thread calling send() for onConnectionLost(), the reconnect thread of the
+ * device for all others. Implementations should return quickly and must
+ * not call any functions of the device.
+ */
+public interface ReconnectListener
+{
+    /**
+     * function called when the connection of the device was lost and the
+     * automatic reconnection starts
+     * @param device the device which lost its connection
+     * @param cause the exception which was caused by the lost connection
+     */
+    default void onConnectionLost(Device device, Exception cause)
+    {
+    }
+
+
+    /**
+     * function called after an attempt to reconnect failed
+     * @param device the reconnecting device
+     * @param attempt the number of the failed attempt during this outage, starting at 1
+     * @param duration the time the attempt took in nanoseconds
+     * @param cause the exception which made the attempt fail
+     */
+    default void onReconnectFailed(Device device, int attempt, long duration, Exception cause)
+    {
+    }
+
+
+    /**
+     * function called after the device was reconnected and its LEDs were
+     * restored
+     * @param device the reconnected device
+     * @param attempts the number of attempts needed during this outage
+     * @param outageDuration the time from losing the connection until it
+     *                       was restored in nanoseconds
+     */
+    default void onReconnected(Device device, int attempts, long outageDuration)
+    {
+    }
+
+
+    /**
+     * function called when the automatic reconnection stops because the
+     * maximum number of attempts was reached; the device stays disconnected
+     * @param device the disconnected device
+     * @param attempts the number of attempts made during this outage
+     * @param outageDuration the time since the connection was lost in nanoseconds
+     */
+    default void onReconnectAbandoned(Device device, int attempts, long outageDuration)
+    {
+    }
+}
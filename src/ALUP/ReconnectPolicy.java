@@ -0,0 +1,131 @@
+package ALUP;
+
+
+/*
+Copyright 2020 Skyfighter64
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+/**
+ * class describing how a device reconnects after its connection was lost
+ * <br/>
+ * Reconnection attempts are made on a background thread with an
+ * exponentially growing delay in between: the first attempt is made after
+ * the initial delay, every following delay is multiplied by the multiplier
+ * until the maximum delay is reached.
+ * <br/>
+ * Use Device.setReconnectPolicy(...) to enable the automatic reconnection
+ */
+public class ReconnectPolicy
+{
+    //the delay before the first attempt in ms
+    private final long initialDelay;
+
+    //the maximum delay between two attempts in ms
+    private final long maxDelay;
+
+    //the factor the delay grows by after every failed attempt
+    private final double multiplier;
+
+    //the maximum number of attempts per outage; 0 for unlimited attempts
+    private final int maxAttempts;
+
+
+    /**
+     * default constructor of this class, starting with a delay of 100 ms
+     * which doubles after every failed attempt up to 10 s, without limiting
+     * the number of attempts
+     */
+    public ReconnectPolicy()
+    {
+        this (100, 10000, 2, 0);
+    }
+
+
+    /**
+     * specialized constructor of this class
+     * @param initialDelay the delay before the first attempt in ms; has to be >= 0
+     * @param maxDelay the maximum delay between two attempts in ms; has to
+     *                 be >= initialDelay
+     * @param multiplier the factor the delay grows by after every failed
+     *                   attempt; has to be >= 1
+     * @param maxAttempts the maximum number of attempts per outage; has to be
+     *                    >= 0. 0 retries until the device is disconnected
+     * @throws IllegalArgumentException one of the given values is invalid
+     */
+    public ReconnectPolicy(long initialDelay, long maxDelay, double multiplier, int maxAttempts)
+    {
+        if(initialDelay < 0 || maxDelay < initialDelay)
+        {
+            throw new IllegalArgumentException ( "The given delays of " + initialDelay + " ms and " + maxDelay + " ms are invalid");
+        }
+        if(!(multiplier >= 1))
+        {
+            throw new IllegalArgumentException ( "The given multiplier of " + multiplier + " is < 1");
+        }
+        if(maxAttempts < 0)
+        {
+            throw new IllegalArgumentException ( "The given maximum of " + maxAttempts + " attempts is negative");
+        }
+        this.initialDelay = initialDelay;
+        this.maxDelay = maxDelay;
+        this.multiplier = multiplier;
+        this.maxAttempts = maxAttempts;
+    }
+
+
+    /**
+     * function calculating the delay before the given attempt
+     * @param attempt the number of the attempt, starting at 1
+     * @return the delay in ms
+     */
+    public long getDelay(int attempt)
+    {
+        double delay = initialDelay * Math.pow (multiplier, Math.max (0, attempt - 1));
+        return (long) Math.min (maxDelay, delay);
+    }
+
+
+    /**
+     * function checking if another attempt may be made
+     * @param attempts the number of attempts already made during this outage
+     * @return true, if another attempt may be made, else false
+     */
+    public boolean allowsAttempt(int attempts)
+    {
+        return maxAttempts == 0 || attempts < maxAttempts;
+    }
+
+
+    public long getInitialDelay()
+    {
+        return initialDelay;
+    }
+
+    public long getMaxDelay()
+    {
+        return maxDelay;
+    }
+
+    public double getMultiplier()
+    {
+        return multiplier;
+    }
+
+    public int getMaxAttempts()
+    {
+        return maxAttempts;
+    }
+}
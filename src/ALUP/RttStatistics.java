@@ -0,0 +1,123 @@
+package ALUP;
+
+import java.util.Arrays;
+
+/*
+Copyright 2020 Skyfighter64
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+/**
+ * class keeping the most recent rtt samples of a device to calculate
+ * percentiles of their distribution
+ * <br/>
+ * Note: the samples are stored inside a fixed size ring buffer, so adding
+ * samples does not allocate any memory
+ */
+class RttStatistics
+{
+    //the most recent samples in nanoseconds, in the order they were added
+    private final long[] samples;
+
+    //a sorted copy of the samples; only valid if sorted is true
+    private final long[] sortedSamples;
+
+    //true, if sortedSamples matches the current samples
+    private boolean sorted;
+
+    //the index at which the next sample is stored
+    private int next;
+
+    //the number of valid samples
+    private int size;
+
+
+    /**
+     * default constructor of this class
+     * @param capacity the maximum number of samples kept; has to be > 0
+     * @throws IllegalArgumentException the given capacity is <= 0
+     */
+    RttStatistics(int capacity)
+    {
+        if(capacity <= 0)
+        {
+            throw new IllegalArgumentException ( "The given capacity of " + capacity + " is <= 0");
+        }
+        samples = new long[capacity];
+        sortedSamples = new long[capacity];
+    }
+
+
+    /**
+     * function adding a sample, replacing the oldest one if the capacity is
+     * reached
+     * @param rtt the measured rtt in nanoseconds
+     */
+    void add(long rtt)
+    {
+        samples[next] = rtt;
+        next = (next + 1) % samples.length;
+        size = Math.min (size + 1, samples.length);
+        sorted = false;
+    }
+
+
+    /**
+     * function removing all samples
+     */
+    void clear()
+    {
+        next = 0;
+        size = 0;
+        sorted = false;
+    }
+
+
+    /**
+     * function calculating a percentile of the kept samples using the
+     * nearest rank method
+     * @param percentile the percentile to calculate; between 0 and 1, for
+     *                   example 0.99 for the 99th percentile
+     * @return the smallest sample which is larger than or equal to the given
+     * fraction of all samples; -1 if there are no samples
+     */
+    long percentile(double percentile)
+    {
+        if(size == 0)
+        {
+            return -1;
+        }
+        if(!sorted)
+        {
+            System.arraycopy (samples, 0, sortedSamples, 0, size);
+            Arrays.sort (sortedSamples, 0, size);
+            sorted = true;
+        }
+
+        int rank = (int) Math.ceil (percentile * size);
+        return sortedSamples[Math.max (0, Math.min (size - 1, rank - 1))];
+    }
+
+
+    int size()
+    {
+        return size;
+    }
+
+    int capacity()
+    {
+        return samples.length;
+    }
+}
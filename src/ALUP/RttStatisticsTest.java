@@ -0,0 +1,64 @@
+package ALUP;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+Copyright 2020 Skyfighter64
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+class RttStatisticsTest
+{
+
+    @Test
+    void percentile ( )
+    {
+        RttStatistics statistics = new RttStatistics (100);
+        assertEquals (-1, statistics.percentile (0.99));
+
+        //add the samples 100 to 1 in reverse order
+        for(int i = 100; i > 0; i--)
+        {
+            statistics.add (i);
+        }
+        assertEquals (100, statistics.size ());
+        assertEquals (1, statistics.percentile (0));
+        assertEquals (50, statistics.percentile (0.5));
+        assertEquals (99, statistics.percentile (0.99));
+        assertEquals (100, statistics.percentile (1));
+    }
+
+
+    @Test
+    void replaceOldestSamples ( )
+    {
+        RttStatistics statistics = new RttStatistics (4);
+        for(int i = 1; i <= 6; i++)
+        {
+            statistics.add (i * 10);
+        }
+
+        //only the samples 30 to 60 are kept
+        assertEquals (4, statistics.size ());
+        assertEquals (30, statistics.percentile (0));
+        assertEquals (60, statistics.percentile (1));
+
+        statistics.clear ();
+        assertEquals (0, statistics.size ());
+        assertEquals (-1, statistics.percentile (0.5));
+    }
+}
@@ -0,0 +1,212 @@
+package ALUP;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+
+/*
+Copyright 2020 Skyfighter64
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+/**
+ * class emulating a slave device inside the tests
+ * <br/>
+ * Every byte written to this device is processed right away, answering the
+ * handshake and every received frame like a slave device would. The
+ * answers can be scripted: single frames can be answered with a frame
+ * error, and the device can stop answering after a number of frames.
+ */
+class ScriptedDevice extends Device
+{
+    //the number of LEDs announced by the configuration
+    private final int numOfLeds;
+
+    //true, if the device never sends a connection request
+    private final boolean silent;
+
+    //the bytes sent to the master which were not read yet
+    private final ArrayDeque<Byte> responses = new ArrayDeque<> ( );
+
+    //the bytes of the frame which is currently received
+    private final ArrayList<Byte> received = new ArrayList<> ( );
+
+    //true, if the handshake is finished and frames are received
+    private boolean configured;
+
+    //the indices of the received frames which are answered with a frame error
+    final Set<Integer> errorFrames = new HashSet<> ( );
+
+    //the number of frames which are answered; all following frames are not
+    int answeredFrames = Integer.MAX_VALUE;
+
+    //the time in ms the connection request and the configuration are
+    // delayed by
+    int handshakeDelay;
+
+    //the value of System.nanoTime() before which no response can be read
+    private long readableAt;
+
+    //the headers of all received frames as {body size, offset, command}
+    final List<int[]> frames = new ArrayList<> ( );
+
+
+    /**
+     * default constructor of this class
+     * @param numOfLeds the number of LEDs announced by the configuration
+     * @param silent true, if the device should never start the handshake
+     */
+    ScriptedDevice(int numOfLeds, boolean silent)
+    {
+        this.numOfLeds = numOfLeds;
+        this.silent = silent;
+    }
+
+
+    @Override
+    protected synchronized void openConnection()
+    {
+        responses.clear ();
+        received.clear ();
+        configured = false;
+        if(!silent)
+        {
+            delayResponses ();
+            respond (Constants.CONNECTION_REQUEST_BYTE);
+        }
+    }
+
+    @Override
+    protected void closeConnection()
+    {
+    }
+
+    @Override
+    protected synchronized void readBytes(byte[] buffer, int bytesToRead)
+    {
+        for(int i = 0; i < bytesToRead; i++)
+        {
+            buffer[i] = responses.removeFirst ();
+        }
+    }
+
+    @Override
+    protected synchronized int bytesAvailable()
+    {
+        if(System.nanoTime () < readableAt)
+        {
+            //the response is still delayed
+            return 0;
+        }
+        return responses.size ();
+    }
+
+    @Override
+    protected void writeBytes(byte[] buffer)
+    {
+        writeBytes (buffer, 0, buffer.length);
+    }
+
+    @Override
+    protected synchronized void writeBytes(byte[] buffer, int offset, int length)
+    {
+        for(int i = offset; i < offset + length; i++)
+        {
+            receive (buffer[i]);
+        }
+    }
+
+
+    /**
+     * function processing a single byte received from the master
+     * @param b the received byte
+     */
+    private void receive(byte b)
+    {
+        if(!configured)
+        {
+            if(b == Constants.CONNECTION_ACKNOWLEDGEMENT_BYTE)
+            {
+                //send the configuration
+                delayResponses ();
+                respond (Constants.CONFIGURATION_START_BYTE);
+                respond (Constants.VERSION.getBytes (StandardCharsets.UTF_8));
+                respond ((byte) 0);
+                respond ("scripted".getBytes (StandardCharsets.UTF_8));
+                respond ((byte) 0);
+                respond (Convert.IntToBytes (numOfLeds));
+                respond (Convert.IntToBytes (1));
+                respond (Convert.IntToBytes (2));
+                respond ((byte) 0);
+            }
+            else if(b == Constants.CONFIGURATION_ACKNOWLEDGEMENT_BYTE)
+            {
+                respond (Constants.CONFIGURATION_ACKNOWLEDGEMENT_BYTE);
+                configured = true;
+            }
+            return;
+        }
+
+        received.add (b);
+        if(received.size () < Header.SIZE || received.size () < Header.SIZE + bodySize ())
+        {
+            return;
+        }
+
+        //a frame was received completely
+        int index = frames.size ();
+        frames.add (new int[]{bodySize (), headerInt (4), received.get (8) & 0xFF});
+        received.clear ();
+        if(index < answeredFrames)
+        {
+            respond (errorFrames.contains (index) ? Constants.FRAME_ERROR_BYTE : Constants.FRAME_ACKNOWLEDGEMENT_BYTE);
+        }
+    }
+
+    /**
+     * function delaying the following responses by the handshake delay
+     */
+    private void delayResponses()
+    {
+        readableAt = System.nanoTime () + handshakeDelay * 1_000_000L;
+    }
+
+    private int bodySize()
+    {
+        return headerInt (0);
+    }
+
+    private int headerInt(int index)
+    {
+        int value = 0;
+        for(int i = index; i < index + 4; i++)
+        {
+            value = (value << 8) | (received.get (i) & 0xFF);
+        }
+        return value;
+    }
+
+    private void respond(byte... bytes)
+    {
+        for(byte b : bytes)
+        {
+            responses.addLast (b);
+        }
+    }
+}
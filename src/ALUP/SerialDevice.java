@@ -1,8 +1,11 @@
 package ALUP;
 
 import com.fazecast.jSerialComm.SerialPort;
+import com.fazecast.jSerialComm.SerialPortDataListener;
+import com.fazecast.jSerialComm.SerialPortEvent;
 import com.fazecast.jSerialComm.SerialPortInvalidPortException;
 
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.concurrent.TimeoutException;
@@ -49,6 +52,18 @@ public class SerialDevice extends Device
     //the serial connection object for this device used for serial communication
     public SerialPort serialPort;
 
+    //the read timeout in ms currently configured on the serial port; -1 if
+    // none was configured yet
+    private int readTimeout = -1;
+
+    //the bytes received by the data listener of the serial port which were
+    // not read yet
+    private final ReceiveRingBuffer receiveRing = new ReceiveRingBuffer (4096);
+
+    //true, if the received bytes are delivered by the data listener; false
+    // if the serial port is read using blocking reads
+    private volatile boolean listening;
+
     /**
      * constructor creating a new Device using the given serialPort and baud rate
      * @param serialPort a serial port, does not have to be open
@@ -61,6 +76,8 @@ public class SerialDevice extends Device
         super();
         this.serialPort = serialPort;
         this.serialPort.setBaudRate (baud);
+        //every byte is sent using 10 bits (8N1)
+        getWireCostModel ().setBytesPerSecond (Math.max (1, baud / 10));
     }
 
     /**
@@ -76,6 +93,8 @@ public class SerialDevice extends Device
         super();
         this.serialPort = SerialPort.getCommPort (serialPortName);
         this.serialPort.setBaudRate (baud);
+        //every byte is sent using 10 bits (8N1)
+        getWireCostModel ().setBytesPerSecond (Math.max (1, baud / 10));
     }
 
 
@@ -92,38 +111,185 @@ public class SerialDevice extends Device
      * @throws IllegalArgumentException The configuration received from
      * the device or parts of it were invalid. Therefore the
      *                           connection attempt was stopped.
+     * @throws IOException the serial port could not be opened
      */
-    public void openConnection()
+    public void openConnection() throws IOException
     {
         //establish the serial connection
-        serialPort.openPort ();
+        if(!serialPort.openPort ())
+        {
+            throw new IOException ( "Could not open serial port " + serialPort.getSystemPortName ());
+        }
+        readTimeout = -1;
+
+        //let the serial port deliver received bytes as soon as they arrive;
+        // if it does not support listeners, blocking reads are used instead
+        receiveRing.clear ();
+        listening = serialPort.addDataListener (new ReceiveListener ( ));
     }
 
 
+    /**
+     * class moving the bytes which arrived on the serial port into the
+     * receive ring, waking up the thread waiting for them
+     * <br/>
+     * Note: the listener is called on the event thread of the serial port
+     */
+    private class ReceiveListener implements SerialPortDataListener
+    {
+        //buffer for the bytes read from the serial port
+        private byte[] chunk = new byte[256];
+
+        @Override
+        public int getListeningEvents ( )
+        {
+            return SerialPort.LISTENING_EVENT_DATA_AVAILABLE;
+        }
+
+        @Override
+        public void serialEvent (SerialPortEvent event)
+        {
+            int available = serialPort.bytesAvailable ();
+            while(available > 0)
+            {
+                if(chunk.length < available)
+                {
+                    chunk = new byte[available];
+                }
+                int received = serialPort.readBytes (chunk, available);
+                if(received <= 0)
+                {
+                    //the port was closed or reported an error
+                    return;
+                }
+                receiveRing.write (chunk, 0, received);
+                available = serialPort.bytesAvailable ();
+            }
+        }
+    }
 
 
     /**
      * function receiving the given number of bytes over the serial
      * connection and storing them into the given buffer
+     * <br/>
+     * Note: This function blocks until all bytes were received
      * @param buffer the buffer to store the received data in; has to have a
      *               size of bytesToRead
      * @param bytesToRead the number of bytes to read
+     * @throws IOException the serial port reported an error or the thread
+     * was interrupted while waiting
      */
     @Override
-    protected void readBytes (byte[] buffer, int bytesToRead)
+    protected void readBytes (byte[] buffer, int bytesToRead) throws IOException
     {
-        serialPort.readBytes (buffer, bytesToRead);
+        int received = 0;
+        while(received < bytesToRead)
+        {
+            if(listening)
+            {
+                received += receiveRing.read (buffer, received, bytesToRead - received, Integer.MAX_VALUE);
+            }
+            else
+            {
+                serialPort.setComPortTimeouts (SerialPort.TIMEOUT_READ_BLOCKING, 0, 0);
+                readTimeout = -1;
+                int result = serialPort.readBytes (buffer, bytesToRead - received, received);
+                if(result < 0)
+                {
+                    throw new IOException ( "Could not read from serial port " + serialPort.getSystemPortName ());
+                }
+                received += result;
+            }
+        }
+    }
+
+
+    /**
+     * function reading the bytes which arrived on the serial connection into
+     * the given buffer, blocking until data arrives or the given timeout
+     * expired
+     * <br/>
+     * Note: the bytes are taken from the receive ring filled by the data
+     * listener of the serial port, which wakes up the waiting thread as soon
+     * as data arrived. If the serial port does not support listeners, its
+     * semi-blocking read mode is used, which returns as soon as at least one
+     * byte was received
+     * @param buffer the buffer to store the received data in, starting at index 0
+     * @param timeOut the maximum time to wait for data in milliseconds
+     * @return the number of bytes read; 0 if no data arrived within the timeout
+     * @throws IOException the serial port could not be read or the thread
+     * was interrupted while waiting
+     */
+    @Override
+    protected int readAvailableBytes (byte[] buffer, int timeOut) throws IOException
+    {
+        if(listening)
+        {
+            return receiveRing.read (buffer, 0, buffer.length, timeOut);
+        }
+        if(timeOut <= 0)
+        {
+            //only read the bytes which already arrived
+            int available = Math.min (bytesAvailable (), buffer.length);
+            return available > 0 ? readChecked (buffer, available) : 0;
+        }
+
+        //only reconfigure the port if the timeout changed
+        if(timeOut != readTimeout)
+        {
+            serialPort.setComPortTimeouts (SerialPort.TIMEOUT_READ_SEMI_BLOCKING, timeOut, 0);
+            readTimeout = timeOut;
+        }
+        return readChecked (buffer, buffer.length);
+    }
+
+
+    /**
+     * function reading up to the given number of bytes from the serial port
+     * @param buffer the buffer to store the received data in, starting at index 0
+     * @param bytesToRead the maximum number of bytes to read
+     * @return the number of bytes read
+     * @throws IOException the serial port reported an error
+     */
+    private int readChecked(byte[] buffer, int bytesToRead) throws IOException
+    {
+        int received = serialPort.readBytes (buffer, bytesToRead);
+        if(received < 0)
+        {
+            throw new IOException ( "Could not read from serial port " + serialPort.getSystemPortName ());
+        }
+        return received;
     }
 
 
     /**
      * function sending the given bytes over the serial connection
      * @param buffer an array containing the data which should be sent.
+     * @throws IOException the serial port reported an error
+     */
+    @Override
+    protected void writeBytes (byte[] buffer) throws IOException
+    {
+        writeBytes (buffer, 0, buffer.length);
+    }
+
+
+    /**
+     * function sending the given part of the given buffer over the serial
+     * connection without copying it
+     * @param buffer an array containing the data which should be sent
+     * @param offset the index of the first byte to send
+     * @param length the number of bytes to send
+     * @throws IOException the serial port reported an error
      */
     @Override
-    protected void writeBytes (byte[] buffer)
+    protected void writeBytes (byte[] buffer, int offset, int length) throws IOException
     {
-        serialPort.writeBytes (buffer, buffer.length);
+        if(serialPort.writeBytes (buffer, length, offset) < 0)
+        {
+            throw new IOException ( "Could not write to serial port " + serialPort.getSystemPortName ());
+        }
     }
 
 
@@ -136,6 +302,10 @@ public class SerialDevice extends Device
     @Override
     protected int bytesAvailable ( )
     {
+        if(listening)
+        {
+            return receiveRing.available ();
+        }
         return serialPort.bytesAvailable ();
     }
 
@@ -145,7 +315,13 @@ public class SerialDevice extends Device
     @Override
     public void closeConnection ( )
     {
-            serialPort.closePort ();
+        if(listening)
+        {
+            serialPort.removeDataListener ();
+            listening = false;
+        }
+        serialPort.closePort ();
+        receiveRing.clear ();
     }
 
     @Override
@@ -0,0 +1,263 @@
+package ALUP;
+
+import com.fazecast.jSerialComm.SerialPort;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/*
+Copyright 2020 Skyfighter64
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+/**
+ * class finding the ALUP devices connected to the serial ports of this
+ * computer
+ * <br/>
+ * All ports are probed at the same time, each on its own thread, by
+ * connecting a SerialDevice to it. Ports which do not send a connection
+ * request or their configuration within the probe timeout are closed again,
+ * so the discovery takes about as long as the slowest responding device
+ * instead of the sum of all timeouts.
+ * <br/>
+ * The devices found are connected and their configuration can be read
+ * using getConfiguration(). Their handshake and configuration timeouts are
+ * reset to the values used before probing.
+ */
+public class SerialDiscovery
+{
+    //the default time in ms a port has to start the handshake and send its
+    // configuration in
+    public static final int DEFAULT_PROBE_TIMEOUT = 2000;
+
+    //the baud rate used for all ports
+    private final int baud;
+
+    //the time in ms a port has to start the handshake and send its configuration in
+    private int probeTimeout = DEFAULT_PROBE_TIMEOUT;
+
+
+    /**
+     * constructor of this class
+     * @param baud the baud rate used for all ports; has to be the same as
+     *             set on the slave devices
+     * @throws IllegalArgumentException the given baud rate is <= 0
+     */
+    public SerialDiscovery(int baud)
+    {
+        if(baud <= 0)
+        {
+            throw new IllegalArgumentException ( "The given baud rate of " + baud + " is <= 0");
+        }
+        this.baud = baud;
+    }
+
+
+    /**
+     * function probing all serial ports of this computer
+     * <br/>
+     * Note: This function blocks until all ports were probed
+     * @return the connected devices, in the order of their ports
+     * @throws InterruptedException the thread was interrupted while waiting
+     * for the ports; all probes are stopped
+     */
+    public List<SerialDevice> discover() throws InterruptedException
+    {
+        return discover (SerialPort.getCommPorts ());
+    }
+
+
+    /**
+     * function probing the given serial ports
+     * <br/>
+     * Note: This function blocks until all ports were probed
+     * @param ports the ports to probe; must not be in use
+     * @return the connected devices, in the order of the given ports
+     * @throws NullPointerException the given ports are null
+     * @throws InterruptedException the thread was interrupted while waiting
+     * for the ports; all probes are stopped
+     */
+    public List<SerialDevice> discover(SerialPort[] ports) throws InterruptedException
+    {
+        if(ports == null)
+        {
+            throw new NullPointerException ( "the given ports are null");
+        }
+
+        List<SerialDevice> devices = new ArrayList<> ( );
+        for(SerialPort port : ports)
+        {
+            devices.add (new SerialDevice (port, baud));
+        }
+        return connectAll (devices, probeTimeout);
+    }
+
+
+    /**
+     * function connecting all given devices at the same time
+     * <br/>
+     * If the thread is interrupted, all probes are stopped and every device
+     * which was connected already, or is connected by a probe afterwards, is
+     * disconnected again.
+     * @param devices the devices to connect; have to be disconnected
+     * @param probeTimeout the time in ms each device has to start the
+     *                     handshake and send its configuration in
+     * @return the devices which were connected, in the given order
+     * @throws InterruptedException the thread was interrupted while waiting
+     * for the devices; all probes are stopped
+     */
+    static <T extends Device> List<T> connectAll(List<T> devices, int probeTimeout) throws InterruptedException
+    {
+        boolean[] connected = new boolean[devices.size ()];
+        //set when the discovery was stopped; guarded by connected
+        boolean[] stopped = new boolean[1];
+        Thread[] probes = new Thread[devices.size ()];
+        for(int i = 0; i < probes.length; i++)
+        {
+            int index = i;
+            probes[i] = new Thread (( ) ->
+            {
+                Device device = devices.get (index);
+                boolean success = probe (device, probeTimeout);
+                synchronized (connected)
+                {
+                    if(!stopped[0])
+                    {
+                        connected[index] = success;
+                        return;
+                    }
+                }
+                if(success)
+                {
+                    //nobody is waiting for this device anymore; release it
+                    device.disconnect ();
+                }
+            }, "ALUP-Discovery-" + i);
+            //use daemon threads so a hanging port does not keep the application alive
+            probes[i].setDaemon (true);
+            probes[i].start ();
+        }
+
+        try
+        {
+            for(Thread probe : probes)
+            {
+                probe.join ();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            //stop waiting for the remaining ports; the probes still running
+            // release their devices themselves
+            List<T> found;
+            synchronized (connected)
+            {
+                stopped[0] = true;
+                found = connectedDevices (devices, connected);
+            }
+            for(Thread probe : probes)
+            {
+                probe.interrupt ();
+            }
+            for(T device : found)
+            {
+                device.disconnect ();
+            }
+            throw e;
+        }
+
+        return connectedDevices (devices, connected);
+    }
+
+
+    /**
+     * function selecting the devices which were connected
+     * @param devices all probed devices
+     * @param connected true at the index of every device which was connected
+     * @return the connected devices, in the given order
+     */
+    private static <T extends Device> List<T> connectedDevices(List<T> devices, boolean[] connected)
+    {
+        List<T> found = new ArrayList<> ( );
+        for(int i = 0; i < connected.length; i++)
+        {
+            if(connected[i])
+            {
+                found.add (devices.get (i));
+            }
+        }
+        return found;
+    }
+
+
+    /**
+     * function trying to connect the given device within the probe timeout
+     * @param device the device to connect
+     * @param probeTimeout the time in ms the device has to start the
+     *                     handshake and send its configuration in
+     * @return true, if the device was connected, else false
+     */
+    private static boolean probe(Device device, int probeTimeout)
+    {
+        int handshakeTimeout = device.getHandshakeTimeout ();
+        int configurationTimeout = device.getConfigurationTimeout ();
+        device.setHandshakeTimeout (probeTimeout);
+        device.setConfigurationTimeout (probeTimeout);
+        try
+        {
+            device.connect ();
+            return true;
+        }
+        catch (Exception e)
+        {
+            //no ALUP device at this port; release the port
+            device.closeConnection ();
+            return false;
+        }
+        finally
+        {
+            device.setHandshakeTimeout (handshakeTimeout);
+            device.setConfigurationTimeout (configurationTimeout);
+        }
+    }
+
+
+    public int getBaud()
+    {
+        return baud;
+    }
+
+    public int getProbeTimeout()
+    {
+        return probeTimeout;
+    }
+
+
+    /**
+     * setter for the time a port has to start the handshake and send its
+     * configuration in
+     * @param probeTimeout the timeout in ms; has to be > 0 (default: 2000)
+     * @throws IllegalArgumentException the given timeout is <= 0
+     */
+    public void setProbeTimeout(int probeTimeout)
+    {
+        if(probeTimeout <= 0)
+        {
+            throw new IllegalArgumentException ( "The given probe timeout of " + probeTimeout + " ms is <= 0");
+        }
+        this.probeTimeout = probeTimeout;
+    }
+}
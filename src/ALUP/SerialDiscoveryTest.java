@@ -0,0 +1,90 @@
+package ALUP;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+Copyright 2020 Skyfighter64
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+class SerialDiscoveryTest
+{
+
+    @Test
+    void connectAll ( ) throws InterruptedException
+    {
+        ScriptedDevice first = new ScriptedDevice (10, false);
+        ScriptedDevice silent = new ScriptedDevice (10, true);
+        ScriptedDevice last = new ScriptedDevice (20, false);
+        int handshakeTimeout = silent.getHandshakeTimeout ();
+
+        List<ScriptedDevice> found = SerialDiscovery.connectAll (Arrays.asList (last, silent, first), 100);
+
+        //the responding devices are returned in the given order
+        assertEquals (Arrays.asList (last, first), found);
+        assertTrue (first.isConnected ());
+        assertTrue (last.isConnected ());
+        assertEquals (20, last.getConfiguration ().getNumOfLeds ());
+
+        //the silent port was given up and its timeouts were reset
+        assertFalse (silent.isConnected ());
+        assertEquals (handshakeTimeout, silent.getHandshakeTimeout ());
+    }
+
+    @Test
+    void connectAllInterrupted ( ) throws InterruptedException
+    {
+        ScriptedDevice responding = new ScriptedDevice (10, false);
+        ScriptedDevice silent = new ScriptedDevice (10, true);
+
+        AtomicReference<Exception> thrown = new AtomicReference<> ( );
+        Thread discovery = new Thread (( ) ->
+        {
+            try
+            {
+                SerialDiscovery.connectAll (Arrays.asList (responding, silent), 10000);
+            }
+            catch (InterruptedException e)
+            {
+                thrown.set (e);
+            }
+        });
+        discovery.start ();
+
+        //interrupt while the silent port is still probed
+        long deadline = System.nanoTime () + 5_000_000_000L;
+        while(!responding.isConnected () && System.nanoTime () < deadline)
+        {
+            Thread.sleep (1);
+        }
+        assertTrue (responding.isConnected ());
+        discovery.interrupt ();
+        discovery.join (5000);
+
+        assertFalse (discovery.isAlive ());
+        assertTrue (thrown.get () instanceof InterruptedException);
+
+        //the device connected before the interrupt was released again
+        assertEquals (Device.CONNECTION_STATE.DISCONNECTED, responding.getConnectionState ());
+        assertEquals (Constants.COMMAND_DISCONNECT, responding.frames.get (responding.frames.size () - 1)[2]);
+    }
+
+}
@@ -0,0 +1,403 @@
+package ALUP;
+
+import java.util.Arrays;
+
+/*
+Copyright 2020 Skyfighter64
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+/**
+ * class keeping a copy of the LED colors shown by the slave device
+ * <br/>
+ * Every frame sent to the device is first rendered into a target image,
+ * following the same clamping rules as the FrameEncoder and applying the
+ * clear command of the frame. The target can then be compared to the image
+ * the device will show after all sent frames were applied (pending image),
+ * so only the changed LEDs have to be sent. Once the device acknowledged all
+ * frames in flight, the pending image becomes the displayed image.
+ * <br/>
+ * When the state of the device becomes unknown, for example after a frame
+ * error or a subcommand, the shadow gets invalidated and the next frame has
+ * to cover the whole LED strip. The displayed image is kept as the last
+ * known state of the device.
+ * <br/>
+ * If only a part of the changes of a frame is sent, the remaining changes
+ * can be deferred; the next frame is then rendered on top of the target
+ * image, so the deferred changes are sent with it.
+ * <br/>
+ * All images store 3 unsigned bytes per LED in the order of the frame body.
+ * <br/>
+ * An untracked shadow does not store any images and never becomes valid, so
+ * every frame is sent as it is; it is used when the LED strip is too large
+ * to keep copies of it.
+ */
+class ShadowFramebuffer
+{
+    //the number of LEDs connected to the device
+    private final int numOfLeds;
+
+    //the image confirmed by the device
+    private final byte[] displayed;
+
+    //the image the device shows after applying all sent frames
+    private final byte[] pending;
+
+    //the image of the frame which is currently prepared
+    private final byte[] target;
+
+    //true, if the images are stored; see ShadowFramebuffer(int, boolean)
+    private final boolean tracking;
+
+    //true, if the pending image matches the state of the device
+    private boolean valid;
+
+    //true, if the target image holds changes which were deferred to the
+    // next frame; see defer()
+    private boolean deferring;
+
+    //the range of LEDs in which the pending image may differ from the
+    // displayed image; start >= end if there is none
+    private int unconfirmedStart;
+    private int unconfirmedEnd;
+
+    //the range of changed LEDs found by the last call of findChanges()
+    private int changedStart;
+    private int changedEnd;
+
+
+    /**
+     * default constructor of this class, starting with an invalid shadow
+     * @param numOfLeds the number of LEDs connected to the device; has to be >= 0
+     */
+    ShadowFramebuffer(int numOfLeds)
+    {
+        this (numOfLeds, true);
+    }
+
+
+    /**
+     * specialized constructor of this class, starting with an invalid shadow
+     * @param numOfLeds the number of LEDs connected to the device; has to be >= 0
+     * @param tracking true, if the LEDs of the device should be tracked;
+     *                 false creates an untracked shadow without any images
+     */
+    ShadowFramebuffer(int numOfLeds, boolean tracking)
+    {
+        int imageSize = tracking ? numOfLeds * 3 : 0;
+        this.numOfLeds = numOfLeds;
+        this.tracking = tracking;
+        this.displayed = new byte[imageSize];
+        this.pending = new byte[imageSize];
+        this.target = new byte[imageSize];
+        this.valid = false;
+    }
+
+
+    /**
+     * function rendering the given frame on top of the pending image into the
+     * target image
+     * <br/>
+     * Note: frames with the clear command start from a black image; if
+     * changes were deferred, all other frames start from the target image
+     * @param frame the frame to render; has to be non-null and must not
+     *              contain a subcommand
+     */
+    void render(Frame frame)
+    {
+        if(!tracking)
+        {
+            return;
+        }
+        if(frame.getHeader ().getCommandByte () == Constants.COMMAND_CLEAR)
+        {
+            //all LEDs which are not part of the frame are set to black
+            Arrays.fill (target, (byte) 0);
+        }
+        else if(!deferring)
+        {
+            System.arraycopy (pending, 0, target, 0, target.length);
+        }
+
+        LED[] leds = frame.getLeds ();
+        int offset = frame.getHeader ().getOffset ();
+        int ledCount = leds.length == 0 ? numOfLeds : leds.length;
+
+        //clamp the frame like the FrameEncoder does
+        int visibleStart = Device.clampOffset (offset, numOfLeds);
+        int visibleLength = FrameEncoder.visibleLength (offset, ledCount, numOfLeds);
+        LED.serializeArray (leds, visibleStart - offset, visibleLength, target, visibleStart * 3);
+    }
+
+
+    /**
+     * function copying the last image confirmed by the device into the
+     * target image, so it can be sent to restore the LEDs of the device
+     */
+    void renderDisplayed()
+    {
+        if(!tracking)
+        {
+            return;
+        }
+        System.arraycopy (displayed, 0, target, 0, target.length);
+        deferring = false;
+    }
+
+
+    /**
+     * function finding the smallest range of LEDs in which the target image
+     * differs from the pending image
+     * @return true, if at least one LED changed, else false
+     */
+    boolean findChanges()
+    {
+        if(!tracking)
+        {
+            //the changes are unknown; treat the whole LED strip as changed
+            changedStart = 0;
+            changedEnd = numOfLeds;
+            return true;
+        }
+        int first = 0;
+        while(first < numOfLeds && sameLed (first))
+        {
+            first++;
+        }
+        if(first == numOfLeds)
+        {
+            //nothing changed
+            changedStart = 0;
+            changedEnd = 0;
+            return false;
+        }
+
+        int last = numOfLeds - 1;
+        while(sameLed (last))
+        {
+            last--;
+        }
+
+        changedStart = first;
+        changedEnd = last + 1;
+        return true;
+    }
+
+
+    /**
+     * function finding all separate runs of LEDs in which the target image
+     * differs from the pending image
+     * @param starts array receiving the index of the first LED of each run;
+     *               has to hold at least (getNumOfLeds() + 1) / 2 entries
+     * @param ends array receiving the index behind the last LED of each run;
+     *             has to hold at least (getNumOfLeds() + 1) / 2 entries
+     * @return the number of runs found, ordered by their position
+     */
+    int findDirtyRuns(int[] starts, int[] ends)
+    {
+        if(!tracking)
+        {
+            //the changes are unknown; treat the whole LED strip as one run
+            starts[0] = 0;
+            ends[0] = numOfLeds;
+            return numOfLeds > 0 ? 1 : 0;
+        }
+        int count = 0;
+        int led = 0;
+        while(led < numOfLeds)
+        {
+            if(sameLed (led))
+            {
+                led++;
+                continue;
+            }
+
+            starts[count] = led;
+            while(led < numOfLeds && !sameLed (led))
+            {
+                led++;
+            }
+            ends[count] = led;
+            count++;
+        }
+        return count;
+    }
+
+
+    /**
+     * function calculating how visible the changes inside the given range of
+     * LEDs are
+     * <br/>
+     * The weight is the sum of the squared differences between the target
+     * and the pending image, weighted per color channel by how sensitive the
+     * human eye is to it (red 2, green 4, blue 3)
+     * @param start the index of the first LED of the range
+     * @param end the index behind the last LED of the range
+     * @return the weight of the changes; 0 if nothing changed or the shadow
+     * is untracked
+     */
+    long getChangeWeight(int start, int end)
+    {
+        if(!tracking)
+        {
+            return 0;
+        }
+        long weight = 0;
+        for(int i = start * 3; i < end * 3; i += 3)
+        {
+            int red = (target[i] & 0xFF) - (pending[i] & 0xFF);
+            int green = (target[i + 1] & 0xFF) - (pending[i + 1] & 0xFF);
+            int blue = (target[i + 2] & 0xFF) - (pending[i + 2] & 0xFF);
+            weight += 2 * red * red + 4 * green * green + 3 * blue * blue;
+        }
+        return weight;
+    }
+
+
+    /**
+     * function checking if the LED at the given index is the same inside the
+     * target and the pending image
+     * @param led the index of the LED to compare
+     * @return true, if the colors are equal, else false
+     */
+    private boolean sameLed(int led)
+    {
+        int i = led * 3;
+        return target[i] == pending[i] && target[i + 1] == pending[i + 1] && target[i + 2] == pending[i + 2];
+    }
+
+
+    /**
+     * function applying the given range of the target image to the pending
+     * image after it was sent to the device
+     * @param start the index of the first sent LED
+     * @param end the index behind the last sent LED
+     */
+    void commit(int start, int end)
+    {
+        if(!tracking || start >= end)
+        {
+            return;
+        }
+        System.arraycopy (target, start * 3, pending, start * 3, (end - start) * 3);
+
+        //extend the range which still has to be confirmed by the device
+        if(unconfirmedStart >= unconfirmedEnd)
+        {
+            unconfirmedStart = start;
+            unconfirmedEnd = end;
+        }
+        else
+        {
+            unconfirmedStart = Math.min (unconfirmedStart, start);
+            unconfirmedEnd = Math.max (unconfirmedEnd, end);
+        }
+    }
+
+
+    /**
+     * function applying the whole target image to the pending image after it
+     * was sent to the device, making the shadow valid if it is tracked
+     */
+    void commitAll()
+    {
+        commit (0, numOfLeds);
+        valid = tracking;
+        deferring = false;
+    }
+
+
+    /**
+     * function keeping the changes of the target image which were not
+     * committed for the next frame, which is then rendered on top of them
+     * instead of on top of the pending image
+     */
+    void defer()
+    {
+        deferring = tracking;
+    }
+
+
+    /**
+     * function marking the pending image as shown by the device
+     * <br/>
+     * Note: has to be called when the device acknowledged all frames in flight
+     */
+    void acknowledge()
+    {
+        if(unconfirmedStart < unconfirmedEnd)
+        {
+            System.arraycopy (pending, unconfirmedStart * 3, displayed, unconfirmedStart * 3, (unconfirmedEnd - unconfirmedStart) * 3);
+        }
+        unconfirmedStart = 0;
+        unconfirmedEnd = 0;
+    }
+
+
+    /**
+     * function marking the state of the device as unknown; the next frame
+     * has to cover the whole LED strip
+     */
+    void invalidate()
+    {
+        valid = false;
+        deferring = false;
+        //the unconfirmed changes can not be trusted anymore
+        System.arraycopy (displayed, 0, pending, 0, pending.length);
+        unconfirmedStart = 0;
+        unconfirmedEnd = 0;
+    }
+
+
+    boolean isValid()
+    {
+        return valid;
+    }
+
+    boolean isDeferring()
+    {
+        return deferring;
+    }
+
+    boolean isTracking()
+    {
+        return tracking;
+    }
+
+    int getChangedStart()
+    {
+        return changedStart;
+    }
+
+    int getChangedEnd()
+    {
+        return changedEnd;
+    }
+
+    byte[] getTarget()
+    {
+        return target;
+    }
+
+    byte[] getDisplayed()
+    {
+        return displayed;
+    }
+
+    int getNumOfLeds()
+    {
+        return numOfLeds;
+    }
+}
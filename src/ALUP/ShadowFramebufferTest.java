@@ -0,0 +1,134 @@
+package ALUP;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+Copyright 2020 Skyfighter64
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+class ShadowFramebufferTest
+{
+
+    @Test
+    void findChanges ( )
+    {
+        ShadowFramebuffer shadow = new ShadowFramebuffer (10);
+        assertFalse (shadow.isValid ());
+
+        //the first frame covers the whole strip
+        Frame frame = new Frame (Effects.Color (1, 2, 3, 10));
+        shadow.render (frame);
+        shadow.commitAll ();
+        assertTrue (shadow.isValid ());
+
+        //no changes
+        shadow.render (frame);
+        assertFalse (shadow.findChanges ());
+
+        //two changed LEDs result in the range between them
+        frame.getLeds ()[3] = new LED ( 4,5,6);
+        frame.getLeds ()[6] = new LED ( 4,5,6);
+        shadow.render (frame);
+        assertTrue (shadow.findChanges ());
+        assertEquals (3, shadow.getChangedStart ());
+        assertEquals (7, shadow.getChangedEnd ());
+        shadow.commit (3, 7);
+
+        //a frame without the clear command keeps the LEDs outside of it
+        Frame partial = new Frame (new LED[]{new LED ( 4,5,6)});
+        partial.setProtocolCommand (Constants.COMMAND_NONE);
+        partial.setOffset (3);
+        shadow.render (partial);
+        assertFalse (shadow.findChanges ());
+
+        //a frame with the clear command sets all other LEDs to black
+        partial.setProtocolCommand (Constants.COMMAND_CLEAR);
+        shadow.render (partial);
+        assertTrue (shadow.findChanges ());
+        assertEquals (0, shadow.getChangedStart ());
+        assertEquals (10, shadow.getChangedEnd ());
+    }
+
+    @Test
+    void acknowledge ( )
+    {
+        ShadowFramebuffer shadow = new ShadowFramebuffer (2);
+        shadow.render (new Frame (Effects.Color (1, 2, 3, 2)));
+        shadow.commitAll ();
+
+        //the displayed image only changes when the device acknowledged the frames
+        assertArrayEquals (new byte[]{0, 0, 0, 0, 0, 0}, shadow.getDisplayed ());
+        shadow.acknowledge ();
+        assertArrayEquals (new byte[]{1, 2, 3, 1, 2, 3}, shadow.getDisplayed ());
+
+        //invalidating keeps the last displayed image
+        shadow.render (new Frame (Effects.Color (9, 9, 9, 2)));
+        shadow.commitAll ();
+        shadow.invalidate ();
+        assertFalse (shadow.isValid ());
+        assertArrayEquals (new byte[]{1, 2, 3, 1, 2, 3}, shadow.getDisplayed ());
+    }
+
+    @Test
+    void untracked ( )
+    {
+        ShadowFramebuffer shadow = new ShadowFramebuffer (3, false);
+        shadow.render (new Frame (Effects.Color (1, 2, 3, 3)));
+        shadow.commitAll ();
+
+        //no images are stored, so the shadow never becomes valid and every
+        // frame counts as a change of the whole strip
+        assertFalse (shadow.isValid ());
+        assertTrue (shadow.findChanges ());
+        assertEquals (0, shadow.getChangedStart ());
+        assertEquals (3, shadow.getChangedEnd ());
+        assertEquals (0, shadow.getTarget ().length);
+        shadow.acknowledge ();
+        assertEquals (0, shadow.getDisplayed ().length);
+    }
+
+    @Test
+    void defer ( )
+    {
+        ShadowFramebuffer shadow = new ShadowFramebuffer (4);
+        Frame frame = new Frame (Effects.Color (0, 0, 0, 4));
+        shadow.render (frame);
+        shadow.commitAll ();
+
+        //green changes weigh more than red ones of the same size
+        frame.getLeds ()[0] = new LED ( 10,0,0);
+        frame.getLeds ()[3] = new LED ( 0,10,0);
+        shadow.render (frame);
+        assertEquals (200, shadow.getChangeWeight (0, 1));
+        assertEquals (400, shadow.getChangeWeight (3, 4));
+
+        //only send the green change and defer the red one
+        shadow.commit (3, 4);
+        shadow.defer ();
+
+        //a frame without the clear command keeps the deferred change
+        Frame partial = new Frame (new LED[]{new LED ( 1,1,1)});
+        partial.setProtocolCommand (Constants.COMMAND_NONE);
+        partial.setOffset (1);
+        shadow.render (partial);
+        assertTrue (shadow.findChanges ());
+        assertEquals (0, shadow.getChangedStart ());
+        assertEquals (2, shadow.getChangedEnd ());
+        assertEquals (200 + 2 + 4 + 3, shadow.getChangeWeight (0, 4));
+    }
+}
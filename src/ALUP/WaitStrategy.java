@@ -0,0 +1,64 @@
+package ALUP;
+
+
+/*
+Copyright 2020 Skyfighter64
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+/**
+ * interface for strategies deciding how a device waits for incoming data,
+ * for example while waiting for a frame acknowledgement
+ * <br/>
+ * Choosing a strategy is a tradeoff between the latency with which a
+ * response is detected and the CPU time spent while waiting:
+ * <br/>
+ * - BusySpinWaitStrategy: lowest latency, occupies one CPU core completely
+ * <br/>
+ * - YieldingWaitStrategy: spins shortly, then yields to other threads; low
+ *  latency, but still uses a full core when nothing else runs
+ * <br/>
+ * - ParkingWaitStrategy: parks the thread with a growing backoff; latency up
+ *  to the maximum park time, very little CPU usage
+ * <br/>
+ * - BlockingWaitStrategy (default): blocks inside the connection until the
+ *  operating system delivers data; no CPU usage while waiting, latency
+ *  depends on the wake up time of the operating system
+ * <br/>
+ * Use test.WaitStrategyBenchmark to measure the strategies on your system.
+ */
+public interface WaitStrategy
+{
+    /**
+     * function called by a device each time it found no data while waiting
+     * <br/>
+     * Note: this function should return quickly so the device can check for
+     * data again; it must not wait longer than the given remaining time
+     * @param iteration the number of times this function was already called
+     *                  during the current wait, starting at 0
+     * @param remaining the time in nanoseconds until the device stops waiting
+     */
+    void idle(int iteration, long remaining);
+
+    /**
+     * function indicating if the device should block inside its connection
+     * instead of polling for data and calling idle()
+     * @return true, if this strategy blocks, else false
+     */
+    default boolean isBlocking()
+    {
+        return false;
+    }
+}
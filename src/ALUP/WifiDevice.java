@@ -2,6 +2,7 @@ package ALUP;
 
 import java.io.IOException;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
 
 /**
  * add me
@@ -108,6 +109,57 @@ public class WifiDevice extends Device
         System.out.println ( );*/
     }
 
+    /**
+     * function sending the given part of the given buffer over the TCP Socket
+     * without copying it
+     * @param buffer an array containing the data which should be sent
+     * @param offset the index of the first byte to send
+     * @param length the number of bytes to send
+     * @throws IOException an IO error occurred while sending the data
+     */
+    @Override
+    protected void writeBytes (byte[] buffer, int offset, int length) throws IOException
+    {
+        socket.getOutputStream ().write (buffer, offset, length);
+    }
+
+    /**
+     * function reading the bytes which arrived on the TCP socket into the
+     * given buffer, blocking until data arrives or the given timeout expired
+     * @param buffer the buffer to store the received data in, starting at index 0
+     * @param timeOut the maximum time to wait for data in milliseconds
+     * @return the number of bytes read; 0 if no data arrived within the timeout
+     * @throws IOException the connection was closed by the device or an IO
+     * error occurred
+     */
+    @Override
+    protected int readAvailableBytes (byte[] buffer, int timeOut) throws IOException
+    {
+        if(timeOut <= 0)
+        {
+            //Note: a socket timeout of 0 would block forever
+            int available = Math.min (bytesAvailable (), buffer.length);
+            return socket.getInputStream ().read (buffer, 0, available);
+        }
+
+        //block inside the socket until data arrives
+        socket.setSoTimeout (timeOut);
+        try
+        {
+            int received = socket.getInputStream ().read (buffer, 0, buffer.length);
+            if(received == -1)
+            {
+                throw new IOException ( "The connection was closed by the device");
+            }
+            return received;
+        }
+        catch (SocketTimeoutException e)
+        {
+            //no data arrived within the timeout
+            return 0;
+        }
+    }
+
     @Override
     protected int bytesAvailable ( )
     {
@@ -0,0 +1,504 @@
+package ALUP;
+
+
+/*
+Copyright 2020 Skyfighter64
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+/**
+ * class deciding how the changed LEDs of a frame are split into frames when
+ * using the delta mode of a device
+ * <br/>
+ * Every additional frame costs a header of Header.SIZE bytes and the time
+ * the device needs to receive, apply and acknowledge a frame apart from
+ * transmitting its data (frame overhead). Resending the unchanged LEDs
+ * between two changed runs costs 3 bytes per LED instead. Two runs are
+ * merged into one frame if resending the gap between them is cheaper than
+ * sending a new frame:
+ * <br/>
+ * gap * 3 <= Header.SIZE + frameOverhead * bytesPerSecond
+ * <br/>
+ * The frame overhead is measured from the rtt of frames sent while no
+ * other frames are in flight; the bandwidth of the link has to be set for
+ * each device. The decisions made for the last frame can be inspected
+ * using the getters of this class.
+ * <br/>
+ * When a frame has to fit into a byte budget, the planned regions are
+ * ranked by how visible their changes are and the most visible regions
+ * fitting into the budget are sent; see fitToBudget(). The remaining
+ * regions are deferred to the following frames.
+ */
+public class WireCostModel
+{
+    //the bandwidth used until a different one is set: 115200 baud with
+    // 10 bits per byte (8N1)
+    public static final long DEFAULT_BYTES_PER_SECOND = 11520;
+
+    //the default maximum number of frames a single frame may be split into
+    public static final int DEFAULT_MAX_REGIONS = 16;
+
+    //the weight of a new sample when smoothing the frame overhead; 1/8
+    private static final int SMOOTHING_SHIFT = 3;
+
+    //the number of bytes the link transmits per second
+    private long bytesPerSecond;
+
+    //the maximum number of frames a single frame may be split into
+    private int maxRegions = DEFAULT_MAX_REGIONS;
+
+    //the smoothed frame overhead in nanoseconds; -1 if not measured yet
+    private long frameOverhead = -1;
+
+    //the ranges of LEDs planned by the last call of plan(); the first
+    // regionCount entries are valid
+    private int[] regionStarts = new int[0];
+    private int[] regionEnds = new int[0];
+    private int regionCount;
+
+    //the number of separate runs of changed LEDs found by the last call of plan()
+    private int dirtyRunCount;
+
+    //the number of changed LEDs found by the last call of plan()
+    private int dirtyLedCount;
+
+    //the number of bytes of the frames planned by the last call of plan()
+    private int plannedBytes;
+
+    //the order of the regions, their change weights and if they were kept;
+    // used by fitToBudget()
+    private int[] regionOrder = new int[0];
+    private long[] regionWeights = new long[0];
+    private boolean[] regionKept = new boolean[0];
+
+    //the number of LEDs inside the regions deferred by the last call of
+    // fitToBudget(); 0 if nothing was deferred
+    private int deferredLedCount;
+
+
+    /**
+     * default constructor of this class, using the DEFAULT_BYTES_PER_SECOND
+     */
+    public WireCostModel()
+    {
+        this (DEFAULT_BYTES_PER_SECOND);
+    }
+
+
+    /**
+     * constructor of this class using the given link bandwidth
+     * @param bytesPerSecond the number of bytes the link transmits per
+     *                       second; has to be > 0
+     * @throws IllegalArgumentException the given bandwidth is <= 0
+     */
+    public WireCostModel(long bytesPerSecond)
+    {
+        setBytesPerSecond (bytesPerSecond);
+    }
+
+
+    /**
+     * function updating the frame overhead using a measured rtt
+     * <br/>
+     * Note: the rtt has to be measured while no other frames were in flight;
+     * otherwise it includes the time spent waiting for other frames
+     * @param rtt the time in nanoseconds from writing the data until the
+     *            response of the last frame arrived
+     * @param bytes the number of bytes written
+     * @param frames the number of frames inside the written data; has to be > 0
+     */
+    void update(long rtt, int bytes, int frames)
+    {
+        //remove the time needed for transmitting the data
+        long transmitTime = bytes * 1000000000L / bytesPerSecond;
+        long sample = Math.max (0, rtt - transmitTime) / frames;
+
+        if(frameOverhead < 0)
+        {
+            frameOverhead = sample;
+        }
+        else
+        {
+            frameOverhead += (sample - frameOverhead) >> SMOOTHING_SHIFT;
+        }
+    }
+
+
+    /**
+     * function resetting the measured frame overhead, for example after the
+     * connection changed
+     */
+    void reset()
+    {
+        frameOverhead = -1;
+        regionCount = 0;
+        dirtyRunCount = 0;
+        dirtyLedCount = 0;
+        plannedBytes = 0;
+        deferredLedCount = 0;
+    }
+
+
+    /**
+     * function planning the frames for all LEDs which changed inside the
+     * given shadow framebuffer
+     * <br/>
+     * All runs of changed LEDs are merged if their gap is not larger than
+     * getMaxMergeGap(). If there are still more than getMaxRegions() runs,
+     * the runs with the smallest gaps between them are merged until there
+     * are few enough.
+     * @param shadow the shadow framebuffer holding the rendered target image
+     * @return the number of planned frames; 0 if nothing changed
+     */
+    int plan(ShadowFramebuffer shadow)
+    {
+        int capacity = (shadow.getNumOfLeds () + 1) / 2;
+        if(regionStarts.length < capacity)
+        {
+            regionStarts = new int[capacity];
+            regionEnds = new int[capacity];
+        }
+
+        dirtyRunCount = shadow.findDirtyRuns (regionStarts, regionEnds);
+        dirtyLedCount = 0;
+        for(int i = 0; i < dirtyRunCount; i++)
+        {
+            dirtyLedCount += regionEnds[i] - regionStarts[i];
+        }
+
+        //merge all runs whose gap is cheaper to resend than a new frame
+        int maxGap = getMaxMergeGap ();
+        regionCount = dirtyRunCount == 0 ? 0 : 1;
+        for(int i = 1; i < dirtyRunCount; i++)
+        {
+            if(regionStarts[i] - regionEnds[regionCount - 1] <= maxGap)
+            {
+                regionEnds[regionCount - 1] = regionEnds[i];
+            }
+            else
+            {
+                regionStarts[regionCount] = regionStarts[i];
+                regionEnds[regionCount] = regionEnds[i];
+                regionCount++;
+            }
+        }
+
+        //merge the closest regions until the limit is met
+        while(regionCount > maxRegions)
+        {
+            mergeSmallestGap ();
+        }
+
+        deferredLedCount = 0;
+        updatePlannedBytes ();
+        return regionCount;
+    }
+
+
+    /**
+     * function reducing the regions planned by the last call of plan() to
+     * the most visible changes fitting into the given budget
+     * <br/>
+     * The regions are ranked by the change weight of their LEDs (see
+     * ShadowFramebuffer.getChangeWeight()) and taken, largest first, as long
+     * as their cost fits into the remaining budget. The first region which
+     * does not fit completely is cut to the LEDs fitting into the remaining
+     * budget; the most visible region always keeps at least one LED. The
+     * kept regions stay ordered by their position; the other LEDs are
+     * deferred.
+     * @param shadow the shadow framebuffer passed to plan()
+     * @param budget the maximum cost of the frame in bytes, including the
+     *               cost of each frame; see getCost()
+     * @return the number of kept regions; at least 1 if regions were planned
+     */
+    int fitToBudget(ShadowFramebuffer shadow, long budget)
+    {
+        if(regionOrder.length < regionCount)
+        {
+            regionOrder = new int[regionCount];
+            regionWeights = new long[regionCount];
+            regionKept = new boolean[regionCount];
+        }
+
+        //rank the regions by their change weight, largest first
+        int plannedLeds = 0;
+        for(int i = 0; i < regionCount; i++)
+        {
+            plannedLeds += regionEnds[i] - regionStarts[i];
+            regionKept[i] = false;
+
+            long weight = shadow.getChangeWeight (regionStarts[i], regionEnds[i]);
+            int position = i;
+            while(position > 0 && regionWeights[position - 1] < weight)
+            {
+                regionWeights[position] = regionWeights[position - 1];
+                regionOrder[position] = regionOrder[position - 1];
+                position--;
+            }
+            regionWeights[position] = weight;
+            regionOrder[position] = i;
+        }
+
+        //take the most visible regions which fit into the remaining budget;
+        // the first region which does not fit completely is cut to fill it
+        long remaining = budget;
+        boolean cut = false;
+        for(int rank = 0; rank < regionCount; rank++)
+        {
+            int region = regionOrder[rank];
+            long cost = getCost (1, regionEnds[region] - regionStarts[region]);
+            if(cost > remaining && !cut && (rank == 0 || remaining - getFrameCost ( ) >= 3))
+            {
+                //send as many LEDs as fit, but at least one
+                long ledCount = Math.max (1, (remaining - getFrameCost ( )) / 3);
+                regionEnds[region] = regionStarts[region] + (int) ledCount;
+                cost = getCost (1, (int) ledCount);
+                cut = true;
+            }
+            if(cost <= remaining || rank == 0)
+            {
+                remaining -= cost;
+                regionKept[region] = true;
+            }
+        }
+
+        //remove the deferred regions, keeping the order of the positions
+        int keptLeds = 0;
+        int count = 0;
+        for(int i = 0; i < regionCount; i++)
+        {
+            if(regionKept[i])
+            {
+                regionStarts[count] = regionStarts[i];
+                regionEnds[count] = regionEnds[i];
+                keptLeds += regionEnds[count] - regionStarts[count];
+                count++;
+            }
+        }
+        regionCount = count;
+        deferredLedCount = plannedLeds - keptLeds;
+        updatePlannedBytes ();
+        return regionCount;
+    }
+
+
+    /**
+     * function calculating the number of bytes of the planned regions
+     */
+    private void updatePlannedBytes()
+    {
+        plannedBytes = 0;
+        for(int i = 0; i < regionCount; i++)
+        {
+            plannedBytes += Header.SIZE + (regionEnds[i] - regionStarts[i]) * 3;
+        }
+    }
+
+
+    /**
+     * function calculating the byte budget of a single frame when sending
+     * the given number of frames per second
+     * @param frameRate the number of frames per second; has to be > 0
+     * @return the number of bytes the link transmits during one frame
+     */
+    public long getFrameBudget(int frameRate)
+    {
+        return bytesPerSecond / frameRate;
+    }
+
+
+    /**
+     * function merging the two neighbouring regions with the smallest gap
+     * between them
+     */
+    private void mergeSmallestGap()
+    {
+        int smallest = 1;
+        for(int i = 2; i < regionCount; i++)
+        {
+            if(regionStarts[i] - regionEnds[i - 1] < regionStarts[smallest] - regionEnds[smallest - 1])
+            {
+                smallest = i;
+            }
+        }
+
+        regionEnds[smallest - 1] = regionEnds[smallest];
+        System.arraycopy (regionStarts, smallest + 1, regionStarts, smallest, regionCount - smallest - 1);
+        System.arraycopy (regionEnds, smallest + 1, regionEnds, smallest, regionCount - smallest - 1);
+        regionCount--;
+    }
+
+
+    /**
+     * function calculating the cost of sending an additional frame, expressed
+     * in bytes which could have been transmitted in the same time
+     * @return the size of a header plus the frame overhead in bytes
+     */
+    public long getFrameCost()
+    {
+        return Header.SIZE + Math.max (0, frameOverhead) * bytesPerSecond / 1000000000L;
+    }
+
+
+    /**
+     * function calculating the cost of sending the given number of LEDs split
+     * into the given number of frames
+     * @param frames the number of frames
+     * @param leds the total number of LEDs inside the frames
+     * @return the cost in bytes, including the cost of each frame
+     */
+    public long getCost(int frames, int leds)
+    {
+        return frames * getFrameCost ( ) + leds * 3L;
+    }
+
+
+    /**
+     * function calculating the cost of the frames planned by the last call
+     * of plan()
+     * @return the cost in bytes, including the cost of each frame
+     */
+    public long getPlannedCost()
+    {
+        return getCost (regionCount, (plannedBytes - regionCount * Header.SIZE) / 3);
+    }
+
+
+    /**
+     * function calculating the largest number of unchanged LEDs between two
+     * changed runs which are resent instead of starting a new frame
+     * @return the maximum gap in LEDs which gets merged
+     */
+    public int getMaxMergeGap()
+    {
+        return (int) Math.min (Integer.MAX_VALUE, getFrameCost ( ) / 3);
+    }
+
+
+    /**
+     * getter for the frame overhead
+     * @return the smoothed time in nanoseconds a frame costs apart from
+     * transmitting its data; -1 if it was not measured yet
+     */
+    public long getFrameOverhead()
+    {
+        return frameOverhead;
+    }
+
+    public long getBytesPerSecond()
+    {
+        return bytesPerSecond;
+    }
+
+    public int getMaxRegions()
+    {
+        return maxRegions;
+    }
+
+    public int getRegionCount()
+    {
+        return regionCount;
+    }
+
+    /**
+     * getter for the first LED of a region planned for the last frame
+     * @param index the index of the region; has to be < getRegionCount()
+     * @return the index of the first LED of the region
+     * @throws IndexOutOfBoundsException the given index is out of range
+     */
+    public int getRegionStart(int index)
+    {
+        checkRegionIndex (index);
+        return regionStarts[index];
+    }
+
+    /**
+     * getter for the end of a region planned for the last frame
+     * @param index the index of the region; has to be < getRegionCount()
+     * @return the index behind the last LED of the region
+     * @throws IndexOutOfBoundsException the given index is out of range
+     */
+    public int getRegionEnd(int index)
+    {
+        checkRegionIndex (index);
+        return regionEnds[index];
+    }
+
+    public int getDirtyRunCount()
+    {
+        return dirtyRunCount;
+    }
+
+    public int getDirtyLedCount()
+    {
+        return dirtyLedCount;
+    }
+
+    public int getPlannedBytes()
+    {
+        return plannedBytes;
+    }
+
+    public int getDeferredLedCount()
+    {
+        return deferredLedCount;
+    }
+
+
+    /**
+     * function checking if the given region index is valid for the last plan
+     * @param index the index to check
+     * @throws IndexOutOfBoundsException the given index is out of range
+     */
+    private void checkRegionIndex(int index)
+    {
+        if(index < 0 || index >= regionCount)
+        {
+            throw new IndexOutOfBoundsException ( "Region " + index + " is out of range for " + regionCount + " regions");
+        }
+    }
+
+
+    /**
+     * setter for the bandwidth of the link
+     * @param bytesPerSecond the number of bytes the link transmits per
+     *                       second; has to be > 0
+     * @throws IllegalArgumentException the given bandwidth is <= 0
+     */
+    public void setBytesPerSecond(long bytesPerSecond)
+    {
+        if(bytesPerSecond <= 0)
+        {
+            throw new IllegalArgumentException ( "The given bandwidth of " + bytesPerSecond + " bytes per second is <= 0");
+        }
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+
+    /**
+     * setter for the maximum number of frames a single frame may be split into
+     * @param maxRegions the maximum number of frames; has to be > 0. 1 only
+     *                   sends the smallest range containing all changes
+     * @throws IllegalArgumentException the given number is <= 0
+     */
+    public void setMaxRegions(int maxRegions)
+    {
+        if(maxRegions <= 0)
+        {
+            throw new IllegalArgumentException ( "The given maximum of " + maxRegions + " regions is <= 0");
+        }
+        this.maxRegions = maxRegions;
+    }
+}
@@ -0,0 +1,144 @@
+package ALUP;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+Copyright 2020 Skyfighter64
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+class WireCostModelTest
+{
+
+    /**
+     * function creating a valid shadow framebuffer of the given size with
+     * the given LEDs changed inside its target image
+     */
+    private static ShadowFramebuffer changedShadow(int numOfLeds, int... changedLeds)
+    {
+        ShadowFramebuffer shadow = new ShadowFramebuffer (numOfLeds);
+        Frame frame = new Frame (Effects.Color (1, 1, 1, numOfLeds));
+        shadow.render (frame);
+        shadow.commitAll ();
+
+        for(int led : changedLeds)
+        {
+            frame.getLeds ()[led] = new LED ( 9,9,9);
+        }
+        shadow.render (frame);
+        return shadow;
+    }
+
+
+    @Test
+    void splitDistantChanges ( )
+    {
+        //without a measured overhead, only the header makes a frame expensive
+        WireCostModel model = new WireCostModel (11520);
+        assertEquals (Header.SIZE, model.getFrameCost ());
+        assertEquals (3, model.getMaxMergeGap ());
+
+        assertEquals (2, model.plan (changedShadow (300, 3, 5, 290)));
+        assertEquals (3, model.getDirtyRunCount ());
+        assertEquals (3, model.getDirtyLedCount ());
+        assertEquals (3, model.getRegionStart (0));
+        assertEquals (6, model.getRegionEnd (0));
+        assertEquals (290, model.getRegionStart (1));
+        assertEquals (291, model.getRegionEnd (1));
+        assertEquals (2 * Header.SIZE + 4 * 3, model.getPlannedBytes ());
+        assertThrows (IndexOutOfBoundsException.class, ( ) -> model.getRegionStart (2));
+
+        //nothing changed
+        assertEquals (0, model.plan (changedShadow (300)));
+        assertEquals (0, model.getPlannedBytes ());
+    }
+
+
+    @Test
+    void mergeWithFrameOverhead ( )
+    {
+        WireCostModel model = new WireCostModel (10000);
+
+        //a frame of 100 bytes answered after 20 ms: 10 ms transmitting, 10 ms overhead
+        model.update (20000000, 100, 1);
+        assertEquals (10000000, model.getFrameOverhead ());
+        assertEquals (Header.SIZE + 100, model.getFrameCost ());
+        assertEquals (36, model.getMaxMergeGap ());
+
+        //a gap of 36 LEDs gets merged, a gap of 37 LEDs does not
+        assertEquals (1, model.plan (changedShadow (100, 0, 37)));
+        assertEquals (2, model.plan (changedShadow (100, 0, 38)));
+
+        //new samples are smoothed
+        model.update (100000000 + 10000000, 100, 1);
+        assertEquals (10000000 + (100000000 - 10000000) / 8, model.getFrameOverhead ());
+
+        model.reset ();
+        assertEquals (-1, model.getFrameOverhead ());
+    }
+
+
+    @Test
+    void limitRegions ( )
+    {
+        WireCostModel model = new WireCostModel ( );
+        model.setMaxRegions (2);
+
+        //the closest regions get merged first
+        assertEquals (2, model.plan (changedShadow (100, 0, 10, 12, 50)));
+        assertEquals (4, model.getDirtyRunCount ());
+        assertEquals (0, model.getRegionStart (0));
+        assertEquals (13, model.getRegionEnd (0));
+        assertEquals (50, model.getRegionStart (1));
+
+        assertThrows (IllegalArgumentException.class, ( ) -> model.setMaxRegions (0));
+        assertThrows (IllegalArgumentException.class, ( ) -> model.setBytesPerSecond (0));
+    }
+
+
+    @Test
+    void fitToBudget ( )
+    {
+        WireCostModel model = new WireCostModel ( );
+        ShadowFramebuffer shadow = changedShadow (300, 10);
+        Frame frame = new Frame (Effects.Color (1, 1, 1, 300));
+        frame.getLeds ()[10] = new LED (9, 9, 9);
+        frame.getLeds ()[100] = new LED (255, 255, 255);
+        frame.getLeds ()[101] = new LED (255, 255, 255);
+        frame.getLeds ()[200] = new LED (50, 1, 1);
+        shadow.render (frame);
+
+        //the smallest change does not fit anymore
+        assertEquals (3, model.plan (shadow));
+        assertEquals (2, model.fitToBudget (shadow, 2 * Header.SIZE + 3 * 3));
+        assertEquals (100, model.getRegionStart (0));
+        assertEquals (102, model.getRegionEnd (0));
+        assertEquals (200, model.getRegionStart (1));
+        assertEquals (1, model.getDeferredLedCount ());
+        assertEquals (2 * Header.SIZE + 3 * 3, model.getPlannedBytes ());
+
+        //not even the largest change fits; only its first LED is sent
+        assertEquals (3, model.plan (shadow));
+        assertEquals (0, model.getDeferredLedCount ());
+        assertEquals (1, model.fitToBudget (shadow, Header.SIZE));
+        assertEquals (100, model.getRegionStart (0));
+        assertEquals (101, model.getRegionEnd (0));
+        assertEquals (3, model.getDeferredLedCount ());
+
+        assertEquals (11520 / 30, model.getFrameBudget (30));
+    }
+}
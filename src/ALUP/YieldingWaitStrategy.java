@@ -0,0 +1,69 @@
+package ALUP;
+
+
+/*
+Copyright 2020 Skyfighter64
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+/**
+ * wait strategy spinning for a number of iterations and yielding the
+ * processor to other threads afterwards
+ * <br/>
+ * Responses arriving shortly after the wait started are detected like with
+ * busy spinning, while longer waits give other threads a chance to run. If no
+ * other thread is runnable, this still uses a full CPU core.
+ */
+public class YieldingWaitStrategy implements WaitStrategy
+{
+    //the number of iterations spinning before yielding
+    private final int spinIterations;
+
+    /**
+     * default constructor spinning for 100 iterations before yielding
+     */
+    public YieldingWaitStrategy()
+    {
+        this(100);
+    }
+
+    /**
+     * specialized constructor
+     * @param spinIterations the number of iterations spinning before
+     *                       yielding; has to be >= 0
+     * @throws IllegalArgumentException the given number of iterations is < 0
+     */
+    public YieldingWaitStrategy(int spinIterations)
+    {
+        if(spinIterations < 0)
+        {
+            throw new IllegalArgumentException ( "The given number of spin iterations of " + spinIterations + " is < 0");
+        }
+        this.spinIterations = spinIterations;
+    }
+
+    @Override
+    public void idle (int iteration, long remaining)
+    {
+        if(iteration < spinIterations)
+        {
+            Thread.onSpinWait ();
+        }
+        else
+        {
+            Thread.yield ();
+        }
+    }
+}
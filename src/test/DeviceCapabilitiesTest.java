@@ -0,0 +1,47 @@
+package test;
+
+import org.junit.jupiter.api.Test;
+
+import ALUP.DeviceCapabilities;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeviceCapabilitiesTest
+{
+
+    @Test
+    void parse ( )
+    {
+        DeviceCapabilities capabilities = new DeviceCapabilities (" FPS = 60; rxbuf=2048;pipeline=4 ;ackless;name=strip 1");
+        assertEquals (60, capabilities.getMaxFrameRate ());
+        assertEquals (2048, capabilities.getReceiveBufferSize ());
+        assertEquals (4, capabilities.getPipelineDepth ());
+        assertTrue (capabilities.isAckless ());
+
+        //other entries are kept as they are
+        assertEquals ("strip 1", capabilities.getValue ("Name"));
+        assertEquals ("", capabilities.getValue ("ackless"));
+        assertNull (capabilities.getValue ("missing"));
+    }
+
+    @Test
+    void fallback ( )
+    {
+        //missing capabilities fall back to waiting for every frame
+        for(String extraValues : new String[]{null, "", "some text", ";;="})
+        {
+            DeviceCapabilities capabilities = new DeviceCapabilities (extraValues);
+            assertEquals (0, capabilities.getMaxFrameRate ());
+            assertEquals (0, capabilities.getReceiveBufferSize ());
+            assertEquals (1, capabilities.getPipelineDepth ());
+            assertFalse (capabilities.isAckless ());
+        }
+
+        //invalid values are ignored
+        DeviceCapabilities capabilities = new DeviceCapabilities ("fps=fast;pipeline=-2;rxbuf=0;ackless=no");
+        assertEquals (0, capabilities.getMaxFrameRate ());
+        assertEquals (1, capabilities.getPipelineDepth ());
+        assertEquals (0, capabilities.getReceiveBufferSize ());
+        assertFalse (capabilities.isAckless ());
+    }
+}
@@ -0,0 +1,78 @@
+package test;
+
+import org.junit.jupiter.api.Test;
+
+import ALUP.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameSchedulerTest
+{
+
+    @Test
+    void constantFrameRate ( ) throws Exception
+    {
+        FrameScheduler scheduler = new FrameScheduler (200);
+        assertEquals (TimeUnit.MILLISECONDS.toNanos (5), scheduler.getPeriod ());
+
+        long[] deadlines = new long[20];
+        long start = System.nanoTime ();
+        scheduler.run ((frameNumber, deadline) ->
+        {
+            deadlines[(int) frameNumber] = deadline;
+            return frameNumber < deadlines.length - 1;
+        });
+        long duration = System.nanoTime () - start;
+
+        assertEquals (20, scheduler.getFramesRendered ());
+        assertFalse (scheduler.isRunning ());
+
+        //the deadlines are exactly one period apart, so there is no drift
+        for(int i = 1; i < deadlines.length; i++)
+        {
+            assertEquals (scheduler.getPeriod (), deadlines[i] - deadlines[i - 1]);
+        }
+        //19 periods of waiting; the last frame does not wait for its end
+        assertTrue (duration >= 19 * scheduler.getPeriod ());
+    }
+
+
+    @Test
+    void skipMissedFrames ( ) throws Exception
+    {
+        FrameScheduler scheduler = new FrameScheduler (100);
+        long[] lastFrame = new long[1];
+
+        scheduler.run ((frameNumber, deadline) ->
+        {
+            lastFrame[0] = frameNumber;
+            if(frameNumber == 2)
+            {
+                //take longer than two whole periods
+                FrameScheduler.sleepUntil (deadline + 2 * scheduler.getPeriod () + 1);
+            }
+            if(frameNumber >= 6)
+            {
+                scheduler.stop ();
+            }
+            return true;
+        });
+
+        //frame 2 missed its deadline and the frames 3 and 4 were skipped
+        assertTrue (scheduler.getMissedDeadlines () >= 1);
+        assertTrue (scheduler.getFramesSkipped () >= 2);
+        assertTrue (scheduler.getMaxLateness () >= 2 * scheduler.getPeriod ());
+        //every frame number was either rendered or skipped
+        assertEquals (lastFrame[0] + 1, scheduler.getFramesRendered () + scheduler.getFramesSkipped ());
+    }
+
+
+    @Test
+    void invalidFrameRate ( )
+    {
+        assertThrows (IllegalArgumentException.class, ( ) -> new FrameScheduler (0));
+        assertThrows (IllegalArgumentException.class, ( ) -> new FrameScheduler (-60));
+    }
+}
@@ -50,6 +50,17 @@ class HeaderTest
 
     }
 
+    @Test
+    void serializeIntoBuffer ( )
+    {
+        Header header = new Header (900, 67305993, (short) 255);
+
+        //the header has to be written at the given position
+        byte[] buffer = new byte[Header.SIZE + 2];
+        assertEquals (Header.SIZE + 1, header.serialize (buffer, 1));
+        assertArrayEquals ( new byte[]{0, 0, 0, 3, (byte) 132, 4, 3, 2, 9, (byte) 255, 0}, buffer);
+    }
+
     @Test
     void setCommandByte()
     {
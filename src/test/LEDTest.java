@@ -46,4 +46,20 @@ class LEDTest
 
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void serializeArrayIntoBuffer ( )
+    {
+        LED[] leds = new LED[]{new LED ( 1,2,3), null, new LED ( 4,5,6)};
+
+        //serialize the whole array behind one padding byte
+        byte[] buffer = new byte[10];
+        assertEquals (10, LED.serializeArray (leds, 0, 3, buffer, 1));
+        assertArrayEquals (new byte[]{0, 1, 2, 3, 0, 0, 0, 4, 5, 6}, buffer);
+
+        //LEDs outside of the array are serialized as black
+        buffer = new byte[9];
+        assertEquals (9, LED.serializeArray (leds, 2, 3, buffer, 0));
+        assertArrayEquals (new byte[]{4, 5, 6, 0, 0, 0, 0, 0, 0}, buffer);
+    }
+}
@@ -0,0 +1,127 @@
+package test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ALUP.*;
+
+/**
+ * benchmark measuring the latency with which each WaitStrategy detects
+ * incoming data and the CPU time it uses while waiting
+ *
+ * A second thread simulates a slave device answering after a random delay of
+ * 0.1 - 2 ms. The waiting thread polls for the answer like a device waiting
+ * for a frame acknowledgement; the blocking strategy is simulated by blocking
+ * on a queue, like a thread blocking inside a socket or serial port read.
+ *
+ * Run this class as a regular java application; no device is needed
+ */
+public class WaitStrategyBenchmark
+{
+    //the number of simulated acknowledgements per strategy
+    static final int SAMPLES = 2000;
+
+    public static void main(String[] args) throws InterruptedException
+    {
+        WaitStrategy[] strategies = new WaitStrategy[]{
+                new BusySpinWaitStrategy ( ),
+                new YieldingWaitStrategy ( ),
+                new ParkingWaitStrategy ( ),
+                new BlockingWaitStrategy ( )};
+
+        System.out.println ( "Strategy                 p50 (us)   p90 (us)   p99 (us)   max (us)   CPU while waiting");
+        for(WaitStrategy strategy : strategies)
+        {
+            Benchmark (strategy);
+        }
+    }
+
+
+    /**
+     * function measuring the detection latency of the given strategy and
+     * printing its distribution
+     * @param strategy the strategy to measure
+     */
+    private static void Benchmark(WaitStrategy strategy) throws InterruptedException
+    {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean ();
+        AtomicLong arrivalTime = new AtomicLong (0);
+        ArrayBlockingQueue<Long> queue = new ArrayBlockingQueue<> (1);
+        long[] latencies = new long[SAMPLES];
+        Random rnd = new Random (42);
+
+        long waitingTime = 0;
+        long cpuTime = 0;
+        for(int i = 0; i < SAMPLES; i++)
+        {
+            long delay = TimeUnit.MICROSECONDS.toNanos (100 + rnd.nextInt (1900));
+
+            //simulate the slave device answering after the delay
+            Thread slave = new Thread (() ->
+            {
+                long answerTime = System.nanoTime () + delay;
+                while(System.nanoTime () < answerTime)
+                {
+                    Thread.onSpinWait ();
+                }
+                long now = System.nanoTime ();
+                arrivalTime.set (now);
+                queue.offer (now);
+            });
+
+            long startCpu = threads.getCurrentThreadCpuTime ();
+            long start = System.nanoTime ();
+            slave.start ();
+
+            long arrival;
+            if(strategy.isBlocking ())
+            {
+                arrival = queue.take ();
+            }
+            else
+            {
+                int iteration = 0;
+                while((arrival = arrivalTime.get ()) == 0)
+                {
+                    strategy.idle (iteration++, TimeUnit.SECONDS.toNanos (10));
+                }
+            }
+            long detected = System.nanoTime ();
+
+            cpuTime += threads.getCurrentThreadCpuTime () - startCpu;
+            waitingTime += detected - start;
+            latencies[i] = detected - arrival;
+
+            slave.join ();
+            arrivalTime.set (0);
+            queue.clear ();
+        }
+
+        Arrays.sort (latencies);
+        System.out.printf ("%-24s %9.1f  %9.1f  %9.1f  %9.1f   %5.1f %%%n",
+                strategy.getClass ().getSimpleName (),
+                Percentile (latencies, 0.50) / 1000.0,
+                Percentile (latencies, 0.90) / 1000.0,
+                Percentile (latencies, 0.99) / 1000.0,
+                latencies[latencies.length - 1] / 1000.0,
+                100.0 * cpuTime / waitingTime);
+    }
+
+
+    /**
+     * function returning the given percentile of the given sorted values
+     * @param sorted the values sorted in ascending order; has to be non-empty
+     * @param percentile the percentile from 0 to 1
+     * @return the value at the given percentile
+     */
+    private static long Percentile(long[] sorted, double percentile)
+    {
+        int index = (int) Math.ceil (percentile * sorted.length) - 1;
+        return sorted[Math.max (0, Math.min (index, sorted.length - 1))];
+    }
+}